@@ -0,0 +1,117 @@
+package net.codedstingray.worldshaper.benchmark;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+import net.codedstingray.worldshaper.core.util.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Measures the time and heap allocation of {@link WorldShaper#init()}, i.e. the platform independent part of
+ * enabling the plugin.
+ * <p>
+ * The registries can only be initialized once per JVM, so every sample is taken in a freshly forked JVM.
+ * Run with {@code gradlew startupBenchmark [-PbenchmarkForks=n]}.
+ */
+public class StartupBenchmark {
+
+    private static final String SINGLE_RUN = "--single";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length == 1 && SINGLE_RUN.equals(args[0])) {
+            runSingle();
+            return;
+        }
+
+        int forks = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long[] times = new long[forks];
+        long[] allocations = new long[forks];
+        for(int i = 0; i < forks; i++) {
+            long[] sample = fork();
+            times[i] = sample[0];
+            allocations[i] = sample[1];
+        }
+
+        System.out.println("WorldShaper.init() over " + forks + " fresh JVMs:");
+        System.out.println("  time:       " + summarize(times, 1_000_000, "ms"));
+        System.out.println("  allocation: " + summarize(allocations, 1024, "KiB"));
+    }
+
+    /**
+     * Initializes WorldShaper and prints the elapsed nanoseconds and allocated bytes
+     */
+    private static void runSingle() {
+        WorldShaper worldShaper = WorldShaper.getInstance();
+        worldShaper.setLogger(new SilentLogger());
+        worldShaper.setPluginIntegration(() -> {});
+
+        //on a server, the plugin's class loader has already read from the plugin jar (plugin.yml) at this point
+        WorldShaper.class.getResource("WorldShaper.class");
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocatedBytes(threadBean);
+        long start = System.nanoTime();
+
+        worldShaper.init();
+
+        long time = System.nanoTime() - start;
+        long allocated = allocatedBytes(threadBean) - allocatedBefore;
+        System.out.println(time + " " + allocated);
+    }
+
+    private static long[] fork() throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StartupBenchmark.class.getName(), SINGLE_RUN)
+                .redirectErrorStream(true)
+                .start();
+
+        String output;
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            output = reader.readLine();
+        }
+        if(process.waitFor() != 0 || output == null)
+            throw new IllegalStateException("Benchmark fork failed: " + output);
+
+        String[] split = output.trim().split(" ");
+        return new long[] {Long.parseLong(split[0]), Long.parseLong(split[1])};
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, or 0 if the JVM does not support allocation measurement
+     */
+    private static long allocatedBytes(ThreadMXBean threadBean) {
+        if(threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static String summarize(long[] samples, double unit, String unitName) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return String.format("min %.2f %s, median %.2f %s, max %.2f %s",
+                sorted[0] / unit, unitName,
+                sorted[sorted.length / 2] / unit, unitName,
+                sorted[sorted.length - 1] / unit, unitName);
+    }
+
+    private static class SilentLogger implements Logger {
+        @Override
+        public void debug(String message) {}
+
+        @Override
+        public void info(String message) {}
+
+        @Override
+        public void warn(String message) {}
+
+        @Override
+        public void error(String message) {}
+    }
+}
@@ -1,8 +1,12 @@
 package net.codedstingray.worldshaper.core;
 
 import net.codedstingray.worldshaper.core.area.Area;
-import net.codedstingray.worldshaper.core.area.CuboidArea;
+import net.codedstingray.worldshaper.core.area.AreaType;
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
 import net.codedstingray.worldshaper.core.util.logging.Logger;
+import net.codedstingray.worldshaper.core.world.block.BlockPalette;
+import net.codedstingray.worldshaper.core.world.block.BlockRegistry;
+import net.codedstingray.worldshaper.core.world.block.BlockTags;
 import net.codedstingray.worldshaper.core.world.block.BlockTraits;
 import net.codedstingray.worldshaper.core.world.block.BlockTypes;
 
@@ -16,6 +20,7 @@ public class WorldShaper {
     private Logger logger;
 
     private Map<UUID, Area> playerMappedAreas = new HashMap<>();
+    private Map<UUID, AreaType> playerAreaTypes = new HashMap<>();
 
     private WorldShaper() {}
 
@@ -33,6 +38,9 @@ public class WorldShaper {
 
         BlockTypes.init();
         BlockTraits.init();
+        BlockPalette.init();
+        BlockTags.init();
+        BlockRegistry.seal();
 
         pluginIntegration.initCommands();
     }
@@ -41,12 +49,46 @@ public class WorldShaper {
     public Area getAreaForPlayer(UUID player) {
         Area ret = playerMappedAreas.get(player);
         if(ret == null) {
-            playerMappedAreas.put(player, ret = new CuboidArea()); //TODO: change depending on selection type
+            playerMappedAreas.put(player, ret = getAreaTypeForPlayer(player).createArea());
         }
 
         return ret;
     }
 
+    public AreaType getAreaTypeForPlayer(UUID player) {
+        return playerAreaTypes.getOrDefault(player, AreaType.CUBOID);
+    }
+
+    /**
+     * Changes the type of the player's area. The positions of the current area are carried over to the new one,
+     * as far as the new type accepts them.
+     * @param player The player
+     * @param type The new area type
+     * @return The player's new area
+     */
+    public Area setAreaTypeForPlayer(UUID player, AreaType type) {
+        Area previous = playerMappedAreas.get(player);
+        AreaType previousType = getAreaTypeForPlayer(player);
+        playerAreaTypes.put(player, type);
+        if(previous != null && previousType == type)
+            return previous;
+
+        Area area = type.createArea();
+        if(previous != null && previous.getWorldUUID() != null) {
+            try {
+                for(int index = 0; index < previous.getPositionCount(); index++) {
+                    Vector3 position = previous.getPosition(index);
+                    if(position != null)
+                        area.setPosition(index, position, previous.getWorldUUID());
+                }
+            } catch (IndexOutOfBoundsException e) {
+                //the new area type takes less positions; drop the remaining ones
+            }
+        }
+        playerMappedAreas.put(player, area);
+        return area;
+    }
+
     //logger
     public void setLogger(Logger logger) {
         this.logger = logger;
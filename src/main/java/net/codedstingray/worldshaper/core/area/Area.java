@@ -1,13 +1,26 @@
 package net.codedstingray.worldshaper.core.area;
 
+import net.codedstingray.worldshaper.core.util.function.IntTriConsumer;
 import net.codedstingray.worldshaper.core.util.vector.Vector3;
 
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 public abstract class Area implements Iterable<Vector3> {
 
+    /**
+     * Chunk sections are cubes of 16 blocks; section coordinates are block coordinates shifted by this amount
+     */
+    public static final int SECTION_SHIFT = 4;
+    public static final int SECTION_SIZE = 1 << SECTION_SHIFT;
+
     protected UUID worldUUID = null;
 
+    /**
+     * Block coordinates of {@link #getMinPos()} and {@link #getMaxPos()}, cached by {@link #updateBounds()}
+     */
+    protected int minX, minY, minZ, maxX, maxY, maxZ;
+
     public UUID getWorldUUID() {
         return worldUUID;
     }
@@ -16,10 +29,198 @@ public abstract class Area implements Iterable<Vector3> {
     public abstract void setPosition(int index, Vector3 position, UUID world);
     public abstract Vector3 getPosition(int index);
 
+    /**
+     * @return The number of position indices of this area; positions at these indices may not be set yet
+     */
+    public abstract int getPositionCount();
+
+    /**
+     * @return true if this area takes any number of positions, added one after another,
+     * false if it has a fixed number of positions
+     */
+    public boolean isPositionCountVariable() {
+        return false;
+    }
+
+    /**
+     * Returns the index a newly picked position is set at, e.g. with the area wand.
+     * For areas with a fixed number of positions, this is the last index;
+     * for areas taking any number of positions, it is the current position count.
+     * @return The index for the next position
+     */
+    public int getNextPositionIndex() {
+        return isPositionCountVariable() ? getPositionCount() : getPositionCount() - 1;
+    }
+
+    /**
+     * Removes all positions of this area, so a new selection can be started in the same world.
+     */
+    public abstract void clearPositions();
+
     public abstract boolean isValid();
 
     public abstract Vector3 getMinPos();
     public abstract Vector3 getMaxPos();
 
-    public abstract int getSize();
+    /**
+     * Returns the exact number of blocks in this area. Areas can contain far more than {@link Integer#MAX_VALUE} blocks,
+     * so the size is a long.
+     * @return The number of blocks, or 0 if this area is not valid
+     * @throws ArithmeticException If the number of blocks does not fit into a long
+     */
+    public abstract long getSize();
+
+    /**
+     * Checks whether the block at the given coordinates is part of this area.
+     * Points outside the bounding box are rejected without consulting the shape of the area.
+     * @param x The x coordinate of the block
+     * @param y The y coordinate of the block
+     * @param z The z coordinate of the block
+     * @return true if this area is valid and contains the block
+     */
+    public final boolean contains(int x, int y, int z) {
+        return isValid() && inRange(x, minX, maxX) && inRange(z, minZ, maxZ) && inRange(y, minY, maxY)
+                && containsInBounds(x, y, z);
+    }
+
+    public final boolean contains(Vector3 position) {
+        return contains(position.getBlockX(), position.getBlockY(), position.getBlockZ());
+    }
+
+    /**
+     * Checks whether the block at the given coordinates, which lie within the bounding box of this area,
+     * is part of this area.
+     * @param x The x coordinate of the block
+     * @param y The y coordinate of the block
+     * @param z The z coordinate of the block
+     * @return true if this area contains the block
+     */
+    protected abstract boolean containsInBounds(int x, int y, int z);
+
+    /**
+     * Calls the given consumer with the coordinates of every block in this area.
+     * Unlike {@link #iterator()}, this does not create an object per block.
+     * @param consumer The consumer to call for each block
+     * @throws IllegalStateException If this area is not valid
+     */
+    public void forEachBlock(IntTriConsumer consumer) {
+        checkValid();
+        forEachBlock(minX, minY, minZ, maxX, maxY, maxZ, consumer);
+    }
+
+    /**
+     * Calls the given consumer with the coordinates of every block of this area that lies within the given box.
+     * This is the primitive all other block visitors are built on.
+     * @param minX The minimum x coordinate of the box, inclusive
+     * @param minY The minimum y coordinate of the box, inclusive
+     * @param minZ The minimum z coordinate of the box, inclusive
+     * @param maxX The maximum x coordinate of the box, inclusive
+     * @param maxY The maximum y coordinate of the box, inclusive
+     * @param maxZ The maximum z coordinate of the box, inclusive
+     * @param consumer The consumer to call for each block
+     * @throws IllegalStateException If this area is not valid
+     */
+    public abstract void forEachBlock(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, IntTriConsumer consumer);
+
+    /**
+     * Calls the given consumer with the coordinates of every block in this area, one chunk section at a time.
+     * The sections are visited in the order of {@link #forEachSection(IntTriConsumer)}, so all blocks of a chunk
+     * are visited consecutively and every chunk only has to be loaded and written once.
+     * @param consumer The consumer to call for each block
+     * @throws IllegalStateException If this area is not valid
+     */
+    public void forEachBlockBySection(IntTriConsumer consumer) {
+        forEachSection((sectionX, sectionY, sectionZ) -> {
+            int x = sectionX << SECTION_SHIFT;
+            int y = sectionY << SECTION_SHIFT;
+            int z = sectionZ << SECTION_SHIFT;
+            forEachBlock(x, y, z, x + SECTION_SIZE - 1, y + SECTION_SIZE - 1, z + SECTION_SIZE - 1, consumer);
+        });
+    }
+
+    /**
+     * Calls the given consumer with the section coordinates of every chunk section that contains blocks of this area.
+     * The sections are grouped by chunk: chunks are visited in z, then x order, and the sections of a chunk
+     * from bottom to top.
+     * @param consumer The consumer to call for each section
+     * @throws IllegalStateException If this area is not valid
+     */
+    public void forEachSection(IntTriConsumer consumer) {
+        checkValid();
+        for(int sectionZ = minZ >> SECTION_SHIFT; sectionZ <= maxZ >> SECTION_SHIFT; sectionZ++) {
+            for(int sectionX = minX >> SECTION_SHIFT; sectionX <= maxX >> SECTION_SHIFT; sectionX++) {
+                for(int sectionY = minY >> SECTION_SHIFT; sectionY <= maxY >> SECTION_SHIFT; sectionY++) {
+                    int x = sectionX << SECTION_SHIFT;
+                    int y = sectionY << SECTION_SHIFT;
+                    int z = sectionZ << SECTION_SHIFT;
+                    if(intersects(Math.max(x, minX), Math.max(y, minY), Math.max(z, minZ),
+                            Math.min(x + SECTION_SIZE - 1, maxX), Math.min(y + SECTION_SIZE - 1, maxY), Math.min(z + SECTION_SIZE - 1, maxZ)))
+                        consumer.accept(sectionX, sectionY, sectionZ);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a spliterator that splits this area into chunk-aligned pieces, e.g. for parallel streams.
+     * @return The spliterator
+     * @throws IllegalStateException If this area is not valid
+     */
+    @Override
+    public AreaSpliterator spliterator() {
+        return new AreaSpliterator(this);
+    }
+
+    /**
+     * Calls the given consumer with the coordinates of every block in this area, using all threads of the common
+     * fork-join pool. The area is split into chunk-aligned pieces, so no two threads visit blocks of the same chunk.
+     * The consumer has to be thread-safe; the order in which blocks are visited is unspecified.
+     * @param consumer The consumer to call for each block
+     * @throws IllegalStateException If this area is not valid
+     */
+    public void forEachBlockParallel(IntTriConsumer consumer) {
+        ForkJoinPool.commonPool().invoke(new AreaSpliterator.ForEachBlockTask(spliterator(), consumer));
+    }
+
+    /**
+     * Checks whether any block of this area lies within the given box, which lies within the bounds of this area.
+     * Used to skip sections without blocks; implementations may return true for boxes that turn out to be empty.
+     * @return false if the box certainly contains no block of this area
+     */
+    protected boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return true;
+    }
+
+    /**
+     * Caches the block coordinates of {@link #getMinPos()} and {@link #getMaxPos()}.
+     * Has to be called by subclasses whenever the bounds change.
+     */
+    protected void updateBounds() {
+        if(!isValid())
+            return;
+
+        Vector3 min = getMinPos();
+        Vector3 max = getMaxPos();
+        minX = min.getBlockX();
+        minY = min.getBlockY();
+        minZ = min.getBlockZ();
+        maxX = max.getBlockX();
+        maxY = max.getBlockY();
+        maxZ = max.getBlockZ();
+    }
+
+    /**
+     * Checks min &lt;= value &lt;= max with a single unsigned comparison
+     */
+    protected static boolean inRange(int value, int min, int max) {
+        return Integer.compareUnsigned(value - min, max - min) <= 0;
+    }
+
+    /**
+     * @throws IllegalStateException If this area is not valid
+     */
+    protected void checkValid() {
+        if(!isValid())
+            throw new IllegalStateException("Unable to iterate an invalid area");
+    }
 }
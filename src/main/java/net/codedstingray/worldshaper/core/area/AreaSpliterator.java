@@ -0,0 +1,270 @@
+package net.codedstingray.worldshaper.core.area;
+
+import net.codedstingray.worldshaper.core.util.function.IntTriConsumer;
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
+import net.codedstingray.worldshaper.core.util.vector.Vector3I;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import static net.codedstingray.worldshaper.core.area.Area.SECTION_SHIFT;
+import static net.codedstingray.worldshaper.core.area.Area.SECTION_SIZE;
+
+/**
+ * Spliterator over the blocks of an {@link Area}, splitting it into chunk-aligned pieces.
+ * <p>
+ * The spliterator covers a range of the chunk columns of the area's bounding box, in z, then x order.
+ * Splitting divides the range of columns, so no two pieces ever contain blocks of the same chunk and
+ * workers processing different pieces never share a chunk. Sparse areas can instead pass the list of their
+ * populated columns, so empty columns of the bounding box are never visited. Blocks are visited through
+ * {@link Area#forEachBlock(int, int, int, int, int, int, IntTriConsumer)}, so splitting works for every area type.
+ * <p>
+ * Besides the object-based {@link Spliterator} methods, the remaining blocks can be visited without allocation
+ * through {@link #forEachRemainingBlock(IntTriConsumer)}.
+ */
+public class AreaSpliterator implements Spliterator<Vector3> {
+
+    /**
+     * Pieces with less estimated blocks than this are not split further by {@link ForEachBlockTask}
+     */
+    private static final long PARALLEL_THRESHOLD = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+
+    private final Area area;
+
+    //bounding box of the area when this spliterator was created
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    private final int firstChunkX;
+    private final int firstChunkZ;
+
+    //column counts are longs, since an area spanning the world border covers more than Integer.MAX_VALUE chunks
+    private final long columnsX;
+    private final long totalColumns;
+
+    /**
+     * The chunk x and z coordinates of the columns to visit, as pairs in z, then x order,
+     * or null to visit all columns of the bounding box
+     */
+    private final int[] chunkColumns;
+
+    /**
+     * The number of blocks of the whole area, computed once since it can be expensive for some area types;
+     * Long.MAX_VALUE if it exceeds the range of a long
+     */
+    private final long areaSize;
+
+    /**
+     * The next column that has not been started, and the end of this spliterator's range, exclusive
+     */
+    private long column;
+    private long endColumn;
+
+    //state of the tryAdvance cursor: the column being visited, its next section and the buffered blocks of a section
+    private long currentColumn = -1;
+    private int nextSectionY;
+    private int[] buffer;
+    private int bufferSize;
+    private int bufferPosition;
+
+    AreaSpliterator(Area area) {
+        this(area, null);
+    }
+
+    /**
+     * @param chunkColumns The chunk x and z coordinates of the columns containing blocks of the area, as pairs
+     *                     in z, then x order, or null to visit all columns of the bounding box
+     */
+    AreaSpliterator(Area area, int[] chunkColumns) {
+        area.checkValid();
+        this.area = area;
+
+        Vector3 min = area.getMinPos();
+        Vector3 max = area.getMaxPos();
+        minX = min.getBlockX();
+        minY = min.getBlockY();
+        minZ = min.getBlockZ();
+        maxX = max.getBlockX();
+        maxY = max.getBlockY();
+        maxZ = max.getBlockZ();
+
+        firstChunkX = minX >> SECTION_SHIFT;
+        firstChunkZ = minZ >> SECTION_SHIFT;
+        columnsX = (maxX >> SECTION_SHIFT) - firstChunkX + 1;
+        totalColumns = chunkColumns == null
+                ? columnsX * ((maxZ >> SECTION_SHIFT) - firstChunkZ + 1) : chunkColumns.length / 2;
+        this.chunkColumns = chunkColumns;
+
+        long areaSize;
+        try {
+            areaSize = area.getSize();
+        } catch (ArithmeticException e) {
+            areaSize = Long.MAX_VALUE;
+        }
+        this.areaSize = areaSize;
+
+        column = 0;
+        endColumn = totalColumns;
+    }
+
+    private AreaSpliterator(AreaSpliterator parent, long column, long endColumn) {
+        area = parent.area;
+        minX = parent.minX;
+        minY = parent.minY;
+        minZ = parent.minZ;
+        maxX = parent.maxX;
+        maxY = parent.maxY;
+        maxZ = parent.maxZ;
+        firstChunkX = parent.firstChunkX;
+        firstChunkZ = parent.firstChunkZ;
+        columnsX = parent.columnsX;
+        totalColumns = parent.totalColumns;
+        chunkColumns = parent.chunkColumns;
+        areaSize = parent.areaSize;
+        this.column = column;
+        this.endColumn = endColumn;
+    }
+
+    /**
+     * Calls the given consumer with the coordinates of all remaining blocks, chunk by chunk.
+     * @param consumer The consumer to call for each block
+     */
+    public void forEachRemainingBlock(IntTriConsumer consumer) {
+        //blocks of a column already started by tryAdvance
+        for(; bufferPosition < bufferSize; bufferPosition += 3) {
+            consumer.accept(buffer[bufferPosition], buffer[bufferPosition + 1], buffer[bufferPosition + 2]);
+        }
+        if(currentColumn >= 0 && nextSectionY <= maxY >> SECTION_SHIFT) {
+            visitColumn(currentColumn, Math.max(minY, nextSectionY << SECTION_SHIFT), maxY, consumer);
+        }
+        currentColumn = -1;
+
+        for(; column < endColumn; column++) {
+            visitColumn(column, minY, maxY, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Vector3> action) {
+        forEachRemainingBlock((x, y, z) -> action.accept(new Vector3I(x, y, z)));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Vector3> action) {
+        while(bufferPosition == bufferSize) {
+            if(!bufferNextSection())
+                return false;
+        }
+
+        action.accept(new Vector3I(buffer[bufferPosition], buffer[bufferPosition + 1], buffer[bufferPosition + 2]));
+        bufferPosition += 3;
+        return true;
+    }
+
+    /**
+     * Splits off the second half of the remaining chunk columns.
+     * @return A spliterator over the split off columns, or null if less than two columns remain
+     */
+    @Override
+    public AreaSpliterator trySplit() {
+        long remaining = endColumn - column;
+        if(remaining < 2)
+            return null;
+
+        long middle = column + remaining / 2;
+        AreaSpliterator split = new AreaSpliterator(this, middle, endColumn);
+        endColumn = middle;
+        return split;
+    }
+
+    /**
+     * Estimates the number of remaining blocks as the share of the remaining columns in the area's size
+     */
+    @Override
+    public long estimateSize() {
+        if(areaSize == Long.MAX_VALUE)
+            return Long.MAX_VALUE;
+        return (long) ((double) areaSize * (endColumn - column) / totalColumns) + (bufferSize - bufferPosition) / 3;
+    }
+
+    @Override
+    public int characteristics() {
+        return DISTINCT | NONNULL;
+    }
+
+    /**
+     * Visits the blocks of the given column between the given y coordinates, inclusive
+     */
+    private void visitColumn(long column, int fromY, int toY, IntTriConsumer consumer) {
+        int x, z;
+        if(chunkColumns == null) {
+            x = (int) (firstChunkX + column % columnsX) << SECTION_SHIFT;
+            z = (int) (firstChunkZ + column / columnsX) << SECTION_SHIFT;
+        } else {
+            x = chunkColumns[(int) column * 2] << SECTION_SHIFT;
+            z = chunkColumns[(int) column * 2 + 1] << SECTION_SHIFT;
+        }
+        area.forEachBlock(Math.max(x, minX), fromY, Math.max(z, minZ),
+                Math.min(x + SECTION_SIZE - 1, maxX), toY, Math.min(z + SECTION_SIZE - 1, maxZ), consumer);
+    }
+
+    /**
+     * Buffers the blocks of the next section for {@link #tryAdvance(Consumer)}
+     * @return false if no sections remain
+     */
+    private boolean bufferNextSection() {
+        if(currentColumn < 0 || nextSectionY > maxY >> SECTION_SHIFT) {
+            if(column >= endColumn)
+                return false;
+            currentColumn = column++;
+            nextSectionY = minY >> SECTION_SHIFT;
+        }
+        if(buffer == null)
+            buffer = new int[SECTION_SIZE * SECTION_SIZE * SECTION_SIZE * 3];
+
+        int y = nextSectionY << SECTION_SHIFT;
+        nextSectionY++;
+        bufferSize = 0;
+        bufferPosition = 0;
+        visitColumn(currentColumn, Math.max(y, minY), Math.min(y + SECTION_SIZE - 1, maxY), (bx, by, bz) -> {
+            buffer[bufferSize++] = bx;
+            buffer[bufferSize++] = by;
+            buffer[bufferSize++] = bz;
+        });
+        return true;
+    }
+
+    /**
+     * Fork-join task visiting the blocks of a spliterator, splitting it as long as the pieces are large enough
+     */
+    static class ForEachBlockTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient AreaSpliterator spliterator;
+        private final transient IntTriConsumer consumer;
+
+        ForEachBlockTask(AreaSpliterator spliterator, IntTriConsumer consumer) {
+            this.spliterator = spliterator;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForEachBlockTask> forked = new ArrayList<>();
+            AreaSpliterator split;
+            while(spliterator.estimateSize() > PARALLEL_THRESHOLD && (split = spliterator.trySplit()) != null) {
+                ForEachBlockTask task = new ForEachBlockTask(split, consumer);
+                task.fork();
+                forked.add(task);
+            }
+
+            spliterator.forEachRemainingBlock(consumer);
+            for(ForEachBlockTask task: forked) {
+                task.join();
+            }
+        }
+    }
+}
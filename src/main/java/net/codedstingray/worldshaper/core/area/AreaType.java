@@ -0,0 +1,48 @@
+package net.codedstingray.worldshaper.core.area;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * The shapes of areas players can select
+ */
+public enum AreaType {
+    CUBOID(CuboidArea::new),
+    ELLIPSOID(EllipsoidArea::new),
+    CYLINDER(CylinderArea::new),
+    POLYGON(PolygonArea::new),
+    HULL(ConvexHullArea::new);
+
+    private final Supplier<Area> factory;
+
+    AreaType(Supplier<Area> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return A new, empty area of this type
+     */
+    public Area createArea() {
+        return factory.get();
+    }
+
+    /**
+     * @return The name of this type as used in commands
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up an area type by its name.
+     * @param name The name, case insensitive
+     * @return The area type, or null if no type has the given name
+     */
+    public static AreaType getByName(String name) {
+        for(AreaType type: values()) {
+            if(type.name().equalsIgnoreCase(name))
+                return type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,316 @@
+package net.codedstingray.worldshaper.core.area;
+
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
+import net.codedstingray.worldshaper.core.util.vector.Vector3I;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The convex hull of an arbitrary number of blocks. A block is part of the area if its center lies inside or on the
+ * boundary of the convex hull of all blocks set as positions, so a single position selects a single block and
+ * positions in one layer select a flat area.
+ * <p>
+ * The hull is kept as a triangle mesh and updated incrementally as positions are added: like a QuickHull step,
+ * the faces that see a new corner are removed and the horizon around them is connected to the corner.
+ * All computations use integer coordinates relative to the first position, doubled so block centers and corners
+ * are both integral, which makes every containment test exact. Rows are iterated by clipping them against the
+ * half-spaces of the faces, so adding a position never rescans the selected volume.
+ */
+public class ConvexHullArea extends RowSpanArea {
+
+    /**
+     * The maximum distance of any position from the first one on each axis; keeps the exact arithmetic within a long
+     */
+    public static final int MAX_EXTENT = 1 << 18;
+
+    private final List<Vector3> positions = new ArrayList<>();
+
+    private Vector3 minPos = null;
+    private Vector3 maxPos = null;
+
+    //block coordinates of the first position, the origin of the hull's coordinates
+    private int originX, originY, originZ;
+
+    /**
+     * The corners the faces refer to, as x, y, z triples in doubled coordinates relative to the origin
+     */
+    private long[] corners = new long[0];
+    private int cornerCount = 0;
+
+    private List<Face> faces = new ArrayList<>();
+
+    /**
+     * Sets a position of the hull. Indices up to the current position count are accepted;
+     * setting the position at the current position count adds a new position.
+     * A position in a different world than the area starts a new hull with this position as its first position.
+     * @throws IndexOutOfBoundsException If the index is negative or greater than the current position count
+     * @throws IllegalArgumentException If the position is more than {@value #MAX_EXTENT} blocks away from
+     * the first position on any axis
+     */
+    @Override
+    public void setPosition(int index, Vector3 position, UUID world) {
+        //check before clearing, so a failing call leaves the area unchanged
+        if(index < 0 || index > positions.size())
+            throw new IndexOutOfBoundsException();
+
+        //if the new position is in a different world than the area,
+        //remove all positions and set the world's area to the new world
+        if(!world.equals(worldUUID)) {
+            worldUUID = world;
+            positions.clear();
+            rebuild();
+            index = 0;
+        }
+
+        Vector3 origin = index == 0 ? position : positions.get(0);
+        for(int i = 0; i < positions.size(); i++) {
+            checkExtent(origin, i == index ? position : positions.get(i));
+        }
+        checkExtent(origin, position);
+
+        if(index == positions.size()) {
+            //adding a position only extends the hull
+            positions.add(position);
+            addBlock(position);
+        } else {
+            //moving a position may shrink the hull, so it has to be rebuilt
+            positions.set(index, position);
+            rebuild();
+        }
+        updateBoundsFromPositions();
+    }
+
+    @Override
+    public Vector3 getPosition(int index) {
+        return positions.get(index);
+    }
+
+    @Override
+    public int getPositionCount() {
+        return positions.size();
+    }
+
+    @Override
+    public boolean isPositionCountVariable() {
+        return true;
+    }
+
+    @Override
+    public void clearPositions() {
+        positions.clear();
+        rebuild();
+        updateBoundsFromPositions();
+    }
+
+    @Override
+    public boolean isValid() {
+        return !positions.isEmpty() && worldUUID != null;
+    }
+
+    @Override
+    public Vector3 getMinPos() {
+        return minPos;
+    }
+
+    @Override
+    public Vector3 getMaxPos() {
+        return maxPos;
+    }
+
+    /**
+     * @return The number of triangular faces of the hull
+     */
+    public int getFaceCount() {
+        return faces.size();
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        long centerX = 2L * (x - originX) + 1;
+        long centerY = 2L * (y - originY) + 1;
+        long centerZ = 2L * (z - originZ) + 1;
+        for(Face face: faces) {
+            if(face.normalX * centerX + face.normalY * centerY + face.normalZ * centerZ > face.offset)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected long rowSpan(int y, int z) {
+        long centerY = 2L * (y - originY) + 1;
+        long centerZ = 2L * (z - originZ) + 1;
+
+        //range of doubled block center x coordinates within all half-spaces, starting with the bounds
+        long low = 2L * (minX - originX) + 1;
+        long high = 2L * (maxX - originX) + 1;
+        for(Face face: faces) {
+            long remaining = face.offset - face.normalY * centerY - face.normalZ * centerZ;
+            if(face.normalX > 0) {
+                high = Math.min(high, Math.floorDiv(remaining, face.normalX));
+            } else if(face.normalX < 0) {
+                low = Math.max(low, -Math.floorDiv(-remaining, face.normalX));
+            } else if(remaining < 0) {
+                return EMPTY_SPAN;
+            }
+            if(low > high)
+                return EMPTY_SPAN;
+        }
+
+        //block centers lie at odd doubled coordinates
+        return span((int) (originX + Math.floorDiv(low, 2)), (int) (originX + Math.floorDiv(high - 1, 2)));
+    }
+
+    private void updateBoundsFromPositions() {
+        if(positions.isEmpty()) {
+            minPos = null;
+            maxPos = null;
+            return;
+        }
+
+        int boundsMinX = Integer.MAX_VALUE, boundsMinY = Integer.MAX_VALUE, boundsMinZ = Integer.MAX_VALUE;
+        int boundsMaxX = Integer.MIN_VALUE, boundsMaxY = Integer.MIN_VALUE, boundsMaxZ = Integer.MIN_VALUE;
+        for(Vector3 position: positions) {
+            boundsMinX = Math.min(boundsMinX, position.getBlockX());
+            boundsMinY = Math.min(boundsMinY, position.getBlockY());
+            boundsMinZ = Math.min(boundsMinZ, position.getBlockZ());
+            boundsMaxX = Math.max(boundsMaxX, position.getBlockX());
+            boundsMaxY = Math.max(boundsMaxY, position.getBlockY());
+            boundsMaxZ = Math.max(boundsMaxZ, position.getBlockZ());
+        }
+        minPos = new Vector3I(boundsMinX, boundsMinY, boundsMinZ);
+        maxPos = new Vector3I(boundsMaxX, boundsMaxY, boundsMaxZ);
+        updateBounds();
+    }
+
+    private void rebuild() {
+        corners = new long[0];
+        cornerCount = 0;
+        faces = new ArrayList<>();
+        for(Vector3 position: positions) {
+            addBlock(position);
+        }
+    }
+
+    /**
+     * Extends the hull by the corners of the given block
+     */
+    private void addBlock(Vector3 position) {
+        if(faces.isEmpty()) {
+            //the first block is the initial hull, which makes the hull three-dimensional from the start
+            originX = position.getBlockX();
+            originY = position.getBlockY();
+            originZ = position.getBlockZ();
+            for(int corner = 0; corner < 8; corner++) {
+                addCorner((corner & 1) * 2, (corner >> 1 & 1) * 2, (corner >> 2 & 1) * 2);
+            }
+            int[][] quads = {{0, 1, 3, 2}, {4, 5, 7, 6}, {0, 1, 5, 4}, {2, 3, 7, 6}, {0, 2, 6, 4}, {1, 3, 7, 5}};
+            for(int[] quad: quads) {
+                faces.add(createFace(quad[0], quad[1], quad[2]));
+                faces.add(createFace(quad[0], quad[2], quad[3]));
+            }
+            return;
+        }
+
+        long x = 2L * (position.getBlockX() - originX);
+        long y = 2L * (position.getBlockY() - originY);
+        long z = 2L * (position.getBlockZ() - originZ);
+        for(int corner = 0; corner < 8; corner++) {
+            addToHull(x + (corner & 1) * 2, y + (corner >> 1 & 1) * 2, z + (corner >> 2 & 1) * 2);
+        }
+    }
+
+    /**
+     * Adds a point to the hull: removes all faces that see the point and connects their horizon to it
+     */
+    private void addToHull(long x, long y, long z) {
+        List<Face> remaining = new ArrayList<>(faces.size());
+        Set<Long> visibleEdges = new HashSet<>();
+        for(Face face: faces) {
+            if(face.normalX * x + face.normalY * y + face.normalZ * z > face.offset) {
+                visibleEdges.add(edge(face.a, face.b));
+                visibleEdges.add(edge(face.b, face.c));
+                visibleEdges.add(edge(face.c, face.a));
+            } else {
+                remaining.add(face);
+            }
+        }
+        //points inside or on the hull do not change it
+        if(visibleEdges.isEmpty())
+            return;
+
+        int corner = addCorner(x, y, z);
+        for(long edge: visibleEdges) {
+            int from = (int) (edge >> 32);
+            int to = (int) edge;
+            //the horizon consists of the edges of visible faces whose other face is not visible
+            if(!visibleEdges.contains(edge(to, from)))
+                remaining.add(createFace(from, to, corner));
+        }
+        faces = remaining;
+    }
+
+    private int addCorner(long x, long y, long z) {
+        if(cornerCount * 3 == corners.length)
+            corners = Arrays.copyOf(corners, Math.max(24, corners.length * 2));
+        corners[cornerCount * 3] = x;
+        corners[cornerCount * 3 + 1] = y;
+        corners[cornerCount * 3 + 2] = z;
+        return cornerCount++;
+    }
+
+    /**
+     * Creates the face through the given corners, oriented so its normal points out of the hull
+     */
+    private Face createFace(int a, int b, int c) {
+        long ax = corners[a * 3], ay = corners[a * 3 + 1], az = corners[a * 3 + 2];
+        long abX = corners[b * 3] - ax, abY = corners[b * 3 + 1] - ay, abZ = corners[b * 3 + 2] - az;
+        long acX = corners[c * 3] - ax, acY = corners[c * 3 + 1] - ay, acZ = corners[c * 3 + 2] - az;
+
+        long normalX = abY * acZ - abZ * acY;
+        long normalY = abZ * acX - abX * acZ;
+        long normalZ = abX * acY - abY * acX;
+        long offset = normalX * ax + normalY * ay + normalZ * az;
+
+        //the center of the first block, (1, 1, 1), always lies strictly inside the hull
+        if(normalX + normalY + normalZ > offset)
+            return new Face(a, c, b, -normalX, -normalY, -normalZ, -offset);
+        return new Face(a, b, c, normalX, normalY, normalZ, offset);
+    }
+
+    private static void checkExtent(Vector3 origin, Vector3 position) {
+        if(Math.abs((long) position.getBlockX() - origin.getBlockX()) > MAX_EXTENT
+                || Math.abs((long) position.getBlockY() - origin.getBlockY()) > MAX_EXTENT
+                || Math.abs((long) position.getBlockZ() - origin.getBlockZ()) > MAX_EXTENT)
+            throw new IllegalArgumentException("Convex hull areas can not extend more than " + MAX_EXTENT + " blocks");
+    }
+
+    private static long edge(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A triangle of the hull, with the outward normal and offset of its plane: points p with normal * p &lt;= offset
+     * lie on the inner side
+     */
+    private static class Face {
+        private final int a, b, c;
+        private final long normalX, normalY, normalZ;
+        private final long offset;
+
+        private Face(int a, int b, int c, long normalX, long normalY, long normalZ, long offset) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.normalX = normalX;
+            this.normalY = normalY;
+            this.normalZ = normalZ;
+            this.offset = offset;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package net.codedstingray.worldshaper.core.area;
 
+import net.codedstingray.worldshaper.core.util.function.IntTriConsumer;
 import net.codedstingray.worldshaper.core.util.vector.Vector3;
 import net.codedstingray.worldshaper.core.util.vector.Vector3I;
 import net.codedstingray.worldshaper.core.util.vector.Vector3M;
@@ -7,65 +8,63 @@ import net.codedstingray.worldshaper.core.util.vector.VectorUtil;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.UUID;
 
-public class CuboidArea extends Area {
-
-    private Vector3 pos1 = null; //corresponds to index 0
-    private Vector3 pos2 = null; //corresponds to index 1
-
-    private Vector3 minPos = null;
-    private Vector3 maxPos = null;
-
-    @Override
-    public void setPosition(int index, Vector3 position, UUID world) {
-        if(index < 0 || index > 1)
-            throw new IndexOutOfBoundsException();
-
-        //if the new position is in a different world than the area,
-        //remove all positions and set the world's area to the new world
-        if(!world.equals(worldUUID)) {
-            worldUUID = world;
-            pos1 = null;
-            pos2 = null;
-        }
-
-        //we already know index can only be 0 or 1
-        if(index == 0)
-            pos1 = position;
-        else
-            pos2 = position;
-
-        calculateMinMaxPos();
-    }
+public class CuboidArea extends InscribedArea {
 
     @Override
-    public Vector3 getPosition(int index) {
-        switch (index) {
-            case 0: return pos1;
-            case 1: return pos2;
-            default: throw new IndexOutOfBoundsException();
-        }
+    protected long rowSpan(int y, int z) {
+        return span(minX, maxX);
     }
 
     @Override
-    public boolean isValid() {
-        return pos1 != null && pos2 != null && worldUUID != null;
+    protected boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return true;
     }
 
     @Override
-    public Vector3 getMinPos() {
-        return minPos;
+    protected boolean containsInBounds(int x, int y, int z) {
+        return true;
     }
 
     @Override
-    public Vector3 getMaxPos() {
-        return maxPos;
+    public long getSize() {
+        if(!isValid())
+            return 0;
+
+        long sizeX = (long) maxX - minX + 1;
+        long sizeY = (long) maxY - minY + 1;
+        long sizeZ = (long) maxZ - minZ + 1;
+        return Math.multiplyExact(Math.multiplyExact(sizeX, sizeY), sizeZ);
     }
 
     @Override
-    public int getSize() {
-        return 0;
+    public void forEachBlock(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, IntTriConsumer consumer) {
+        checkValid();
+
+        //clip the box to this area
+        minX = Math.max(minX, this.minX);
+        minY = Math.max(minY, this.minY);
+        minZ = Math.max(minZ, this.minZ);
+        maxX = Math.min(maxX, this.maxX);
+        maxY = Math.min(maxY, this.maxY);
+        maxZ = Math.min(maxZ, this.maxZ);
+        if(minX > maxX || minY > maxY || minZ > maxZ)
+            return;
+
+        //the loops end on equality, so a bound of Integer.MAX_VALUE cannot overflow the loop variable
+        for(int y = minY; ; y++) {
+            for(int z = minZ; ; z++) {
+                for(int x = minX; ; x++) {
+                    consumer.accept(x, y, z);
+                    if(x == maxX)
+                        break;
+                }
+                if(z == maxZ)
+                    break;
+            }
+            if(y == maxY)
+                break;
+        }
     }
 
     @Override
@@ -101,9 +100,4 @@ public class CuboidArea extends Area {
             }
         };
     }
-
-    private void calculateMinMaxPos() {
-        minPos = VectorUtil.min(pos1, pos2);
-        maxPos = VectorUtil.max(pos1, pos2);
-    }
 }
@@ -0,0 +1,31 @@
+package net.codedstingray.worldshaper.core.area;
+
+/**
+ * A vertical elliptic cylinder inscribed in the box spanned by two positions. A block is part of the cylinder if
+ * its center lies within the ellipse touching the outer faces of the box horizontally; all layers are identical.
+ */
+public class CylinderArea extends InscribedArea {
+
+    @Override
+    protected long rowSpan(int y, int z) {
+        double offsetZ = relativeOffset(z, minZ, maxZ);
+        double remaining = 1 - offsetZ * offsetZ;
+        return remaining < 0 ? EMPTY_SPAN : centeredSpan(Math.sqrt(remaining));
+    }
+
+    @Override
+    public long getSize() {
+        if(!isValid())
+            return 0;
+
+        //every layer contains the same rows
+        long layerSize = 0;
+        for(int z = minZ; ; z++) {
+            long span = rowSpan(minY, z);
+            layerSize += Math.max(0, (long) spanEnd(span) - spanStart(span) + 1);
+            if(z == maxZ)
+                break;
+        }
+        return Math.multiplyExact(layerSize, (long) maxY - minY + 1);
+    }
+}
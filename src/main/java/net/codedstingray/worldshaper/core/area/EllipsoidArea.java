@@ -0,0 +1,16 @@
+package net.codedstingray.worldshaper.core.area;
+
+/**
+ * An ellipsoid inscribed in the box spanned by two positions. A block is part of the ellipsoid if its center lies
+ * within the ellipsoid touching the outer faces of the box, so a box of equal side lengths yields a sphere.
+ */
+public class EllipsoidArea extends InscribedArea {
+
+    @Override
+    protected long rowSpan(int y, int z) {
+        double offsetY = relativeOffset(y, minY, maxY);
+        double offsetZ = relativeOffset(z, minZ, maxZ);
+        double remaining = 1 - offsetY * offsetY - offsetZ * offsetZ;
+        return remaining < 0 ? EMPTY_SPAN : centeredSpan(Math.sqrt(remaining));
+    }
+}
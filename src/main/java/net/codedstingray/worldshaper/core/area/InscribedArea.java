@@ -0,0 +1,83 @@
+package net.codedstingray.worldshaper.core.area;
+
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
+import net.codedstingray.worldshaper.core.util.vector.VectorUtil;
+
+import java.util.UUID;
+
+/**
+ * An area inscribed in the box spanned by two positions
+ */
+public abstract class InscribedArea extends RowSpanArea {
+
+    private Vector3 pos1 = null; //corresponds to index 0
+    private Vector3 pos2 = null; //corresponds to index 1
+
+    private Vector3 minPos = null;
+    private Vector3 maxPos = null;
+
+    @Override
+    public void setPosition(int index, Vector3 position, UUID world) {
+        if(index < 0 || index > 1)
+            throw new IndexOutOfBoundsException();
+
+        //if the new position is in a different world than the area,
+        //remove all positions and set the world's area to the new world
+        if(!world.equals(worldUUID)) {
+            worldUUID = world;
+            pos1 = null;
+            pos2 = null;
+        }
+
+        //we already know index can only be 0 or 1
+        if(index == 0)
+            pos1 = position;
+        else
+            pos2 = position;
+
+        calculateMinMaxPos();
+    }
+
+    @Override
+    public void clearPositions() {
+        pos1 = null;
+        pos2 = null;
+        minPos = null;
+        maxPos = null;
+    }
+
+    @Override
+    public Vector3 getPosition(int index) {
+        switch (index) {
+            case 0: return pos1;
+            case 1: return pos2;
+            default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public int getPositionCount() {
+        return 2;
+    }
+
+    @Override
+    public boolean isValid() {
+        return pos1 != null && pos2 != null && worldUUID != null;
+    }
+
+    @Override
+    public Vector3 getMinPos() {
+        return minPos;
+    }
+
+    @Override
+    public Vector3 getMaxPos() {
+        return maxPos;
+    }
+
+    private void calculateMinMaxPos() {
+        minPos = VectorUtil.min(pos1, pos2);
+        maxPos = VectorUtil.max(pos1, pos2);
+        updateBounds();
+    }
+}
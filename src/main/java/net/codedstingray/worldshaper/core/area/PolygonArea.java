@@ -0,0 +1,368 @@
+package net.codedstingray.worldshaper.core.area;
+
+import net.codedstingray.worldshaper.core.util.function.IntTriConsumer;
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
+import net.codedstingray.worldshaper.core.util.vector.Vector3I;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.UUID;
+
+/**
+ * A vertical prism over a polygon in the x-z plane. The positions of the area are the vertices of the polygon,
+ * in order; the polygon may be concave and is filled by the even-odd rule. A block is part of the area if its
+ * coordinates lie inside or on the boundary of the polygon.
+ * <p>
+ * The y range spans the y coordinates of all vertices unless set explicitly with {@link #setYRange(int, int)}.
+ * <p>
+ * Whenever a vertex changes, the polygon is rasterized into a table of x spans per z row, using a scanline over the
+ * edges sorted by their minimum z and a list of the edges active in the current row. Iteration walks these spans,
+ * and {@link #contains(int, int, int)} looks up the row and binary searches its spans.
+ */
+public class PolygonArea extends Area {
+
+    private final List<Vector3> vertices = new ArrayList<>();
+
+    private boolean explicitYRange = false;
+    private int yRangeMin;
+    private int yRangeMax;
+
+    private Vector3 minPos = null;
+    private Vector3 maxPos = null;
+
+    /**
+     * The spans of row z are stored in {@link #spans} between rowOffsets[z - minZ] and rowOffsets[z - minZ + 1],
+     * as pairs of the first and last x coordinate. The spans of a row are sorted and do not overlap.
+     */
+    private int[] rowOffsets = new int[0];
+    private int[] spans = new int[0];
+
+    /**
+     * Sets a vertex of the polygon. Indices up to the current vertex count are accepted;
+     * setting the vertex at the current vertex count appends a new vertex.
+     * A vertex in a different world than the area starts a new polygon with this vertex as its first vertex.
+     * @throws IndexOutOfBoundsException If the index is negative or greater than the current vertex count
+     */
+    @Override
+    public void setPosition(int index, Vector3 position, UUID world) {
+        //check before clearing, so a failing call leaves the area unchanged
+        if(index < 0 || index > vertices.size())
+            throw new IndexOutOfBoundsException();
+
+        //if the new position is in a different world than the area,
+        //remove all positions and set the world's area to the new world
+        if(!world.equals(worldUUID)) {
+            worldUUID = world;
+            vertices.clear();
+            explicitYRange = false;
+            index = 0;
+        }
+
+        if(index == vertices.size())
+            vertices.add(position);
+        else
+            vertices.set(index, position);
+
+        rasterize();
+    }
+
+    @Override
+    public Vector3 getPosition(int index) {
+        return vertices.get(index);
+    }
+
+    @Override
+    public int getPositionCount() {
+        return vertices.size();
+    }
+
+    @Override
+    public boolean isPositionCountVariable() {
+        return true;
+    }
+
+    /**
+     * Removes all vertices and the explicit y range of the polygon.
+     */
+    @Override
+    public void clearPositions() {
+        vertices.clear();
+        explicitYRange = false;
+        rasterize();
+    }
+
+    /**
+     * Sets the y range of the prism, instead of deriving it from the vertices.
+     * @param minY The minimum y coordinate, inclusive
+     * @param maxY The maximum y coordinate, inclusive
+     */
+    public void setYRange(int minY, int maxY) {
+        explicitYRange = true;
+        yRangeMin = Math.min(minY, maxY);
+        yRangeMax = Math.max(minY, maxY);
+        rasterize();
+    }
+
+    /**
+     * A polygon needs at least three vertices
+     */
+    @Override
+    public boolean isValid() {
+        return vertices.size() >= 3 && worldUUID != null;
+    }
+
+    @Override
+    public Vector3 getMinPos() {
+        return minPos;
+    }
+
+    @Override
+    public Vector3 getMaxPos() {
+        return maxPos;
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        int row = z - minZ;
+        int from = rowOffsets[row];
+        int to = rowOffsets[row + 1];
+
+        //binary search for the last span starting at or before x
+        int low = 0;
+        int high = (to - from) / 2 - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(spans[from + middle * 2] <= x)
+                low = middle + 1;
+            else
+                high = middle - 1;
+        }
+        return high >= 0 && x <= spans[from + high * 2 + 1];
+    }
+
+    @Override
+    public long getSize() {
+        if(!isValid())
+            return 0;
+
+        long layerSize = 0;
+        for(int i = 0; i < spans.length; i += 2) {
+            layerSize += (long) spans[i + 1] - spans[i] + 1;
+        }
+        return Math.multiplyExact(layerSize, (long) maxY - minY + 1);
+    }
+
+    @Override
+    public void forEachBlock(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, IntTriConsumer consumer) {
+        checkValid();
+
+        //clip the box to this area
+        minY = Math.max(minY, this.minY);
+        minZ = Math.max(minZ, this.minZ);
+        maxY = Math.min(maxY, this.maxY);
+        maxZ = Math.min(maxZ, this.maxZ);
+        if(minX > maxX || minY > maxY || minZ > maxZ)
+            return;
+
+        //the loops end on equality, so a bound of Integer.MAX_VALUE cannot overflow the loop variable
+        for(int y = minY; ; y++) {
+            for(int z = minZ; ; z++) {
+                int row = z - this.minZ;
+                for(int i = rowOffsets[row]; i < rowOffsets[row + 1]; i += 2) {
+                    int startX = Math.max(minX, spans[i]);
+                    int endX = Math.min(maxX, spans[i + 1]);
+                    if(startX > endX)
+                        continue;
+                    for(int x = startX; ; x++) {
+                        consumer.accept(x, y, z);
+                        if(x == endX)
+                            break;
+                    }
+                }
+                if(z == maxZ)
+                    break;
+            }
+            if(y == maxY)
+                break;
+        }
+    }
+
+    @Override
+    protected boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        //all layers are identical
+        for(int z = minZ; ; z++) {
+            int row = z - this.minZ;
+            for(int i = rowOffsets[row]; i < rowOffsets[row + 1]; i += 2) {
+                if(spans[i] <= maxX && spans[i + 1] >= minX)
+                    return true;
+            }
+            if(z == maxZ)
+                return false;
+        }
+    }
+
+    @Override
+    public Iterator<Vector3> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Recomputes the bounds and the span table of this area
+     */
+    private void rasterize() {
+        if(!isValid()) {
+            minPos = null;
+            maxPos = null;
+            rowOffsets = new int[0];
+            spans = new int[0];
+            return;
+        }
+
+        int n = vertices.size();
+        int[] vertexX = new int[n];
+        int[] vertexZ = new int[n];
+        int boundsMinX = Integer.MAX_VALUE, boundsMinY = Integer.MAX_VALUE, boundsMinZ = Integer.MAX_VALUE;
+        int boundsMaxX = Integer.MIN_VALUE, boundsMaxY = Integer.MIN_VALUE, boundsMaxZ = Integer.MIN_VALUE;
+        for(int i = 0; i < n; i++) {
+            Vector3 vertex = vertices.get(i);
+            vertexX[i] = vertex.getBlockX();
+            vertexZ[i] = vertex.getBlockZ();
+            boundsMinX = Math.min(boundsMinX, vertexX[i]);
+            boundsMinY = Math.min(boundsMinY, vertex.getBlockY());
+            boundsMinZ = Math.min(boundsMinZ, vertexZ[i]);
+            boundsMaxX = Math.max(boundsMaxX, vertexX[i]);
+            boundsMaxY = Math.max(boundsMaxY, vertex.getBlockY());
+            boundsMaxZ = Math.max(boundsMaxZ, vertexZ[i]);
+        }
+        if(explicitYRange) {
+            boundsMinY = yRangeMin;
+            boundsMaxY = yRangeMax;
+        }
+
+        minPos = new Vector3I(boundsMinX, boundsMinY, boundsMinZ);
+        maxPos = new Vector3I(boundsMaxX, boundsMaxY, boundsMaxZ);
+        updateBounds();
+
+        //edge table: the edges as (lower x, lower z, upper x, upper z), sorted by lower z
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        long[][] edges = new long[n][];
+        for(int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            edges[i] = vertexZ[i] <= vertexZ[j]
+                    ? new long[] {vertexX[i], vertexZ[i], vertexX[j], vertexZ[j]}
+                    : new long[] {vertexX[j], vertexZ[j], vertexX[i], vertexZ[i]};
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(edges[a][1], edges[b][1]));
+
+        int rows = Math.toIntExact((long) maxZ - minZ + 1);
+        int[] rowOffsets = new int[rows + 1];
+        SpanBuffer spans = new SpanBuffer();
+        SpanBuffer rowSpans = new SpanBuffer();
+        long[] crossings = new long[n];
+        int[] active = new int[n];
+        int activeCount = 0;
+        int nextEdge = 0;
+
+        for(int row = 0; row < rows; row++) {
+            long z = (long) minZ + row;
+
+            //update the active edges: add edges starting in this row, drop edges that ended before it
+            while(nextEdge < n && edges[order[nextEdge]][1] <= z) {
+                active[activeCount++] = order[nextEdge++];
+            }
+            int kept = 0;
+            for(int i = 0; i < activeCount; i++) {
+                if(edges[active[i]][3] >= z)
+                    active[kept++] = active[i];
+            }
+            activeCount = kept;
+
+            rowSpans.size = 0;
+            int crossingCount = 0;
+            for(int i = 0; i < activeCount; i++) {
+                long[] edge = edges[active[i]];
+                long lowerX = edge[0], lowerZ = edge[1], upperX = edge[2], upperZ = edge[3];
+
+                if(lowerZ == upperZ) {
+                    //horizontal edges only contribute their boundary
+                    rowSpans.add(Math.min(lowerX, upperX), Math.max(lowerX, upperX));
+                    continue;
+                }
+
+                //the crossing of the edge with this row lies at numerator / denominator
+                long denominator = upperZ - lowerZ;
+                long numerator = lowerX * denominator + (z - lowerZ) * (upperX - lowerX);
+                long floor = Math.floorDiv(numerator, denominator);
+                boolean exact = Math.floorMod(numerator, denominator) == 0;
+
+                //boundary blocks are part of the area
+                if(exact)
+                    rowSpans.add(floor, floor);
+
+                //count crossings half-open, so vertices shared by two edges are not counted twice
+                if(z < upperZ) {
+                    //doubled key that orders crossings exactly relative to all integer x coordinates
+                    crossings[crossingCount++] = floor * 2 + (exact ? 0 : 1);
+                }
+            }
+
+            //even-odd fill between pairs of crossings
+            Arrays.sort(crossings, 0, crossingCount);
+            for(int i = 0; i + 1 < crossingCount; i += 2) {
+                long startX = Math.floorDiv(crossings[i] + 1, 2);
+                long endX = Math.floorDiv(crossings[i + 1], 2);
+                if(startX <= endX)
+                    rowSpans.add(startX, endX);
+            }
+
+            rowSpans.mergeInto(spans);
+            rowOffsets[row + 1] = spans.size;
+        }
+
+        this.rowOffsets = rowOffsets;
+        this.spans = Arrays.copyOf(spans.values, spans.size);
+    }
+
+    /**
+     * Growable list of spans, stored as pairs of the first and last x coordinate
+     */
+    private static class SpanBuffer {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        private void add(long startX, long endX) {
+            if(size + 2 > values.length)
+                values = Arrays.copyOf(values, values.length * 2);
+            values[size++] = (int) startX;
+            values[size++] = (int) endX;
+        }
+
+        /**
+         * Sorts the spans of this buffer and adds them to the given buffer, merging overlapping and adjacent spans
+         */
+        private void mergeInto(SpanBuffer target) {
+            int count = size / 2;
+            long[] sorted = new long[count];
+            for(int i = 0; i < count; i++) {
+                sorted[i] = RowSpanArea.span(values[i * 2], values[i * 2 + 1]);
+            }
+            Arrays.sort(sorted);
+
+            int i = 0;
+            while(i < count) {
+                int startX = RowSpanArea.spanStart(sorted[i]);
+                long endX = RowSpanArea.spanEnd(sorted[i]);
+                for(i++; i < count && RowSpanArea.spanStart(sorted[i]) <= endX + 1; i++) {
+                    endX = Math.max(endX, RowSpanArea.spanEnd(sorted[i]));
+                }
+                target.add(startX, endX);
+            }
+        }
+    }
+}
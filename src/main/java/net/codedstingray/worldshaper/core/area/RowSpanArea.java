@@ -0,0 +1,153 @@
+package net.codedstingray.worldshaper.core.area;
+
+import net.codedstingray.worldshaper.core.util.function.IntTriConsumer;
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
+
+import java.util.Iterator;
+import java.util.Spliterators;
+
+/**
+ * An area whose blocks form a single contiguous span of x coordinates in every (y, z) row, like every convex shape.
+ * <p>
+ * Subclasses only compute the span of a row with {@link #rowSpan(int, int)}. Iteration walks the spans directly
+ * instead of testing every block of the bounding box, and {@link #contains(int, int, int)} tests against the span
+ * of the block's row, so both always agree.
+ */
+public abstract class RowSpanArea extends Area {
+
+    /**
+     * Span of a row without blocks
+     */
+    protected static final long EMPTY_SPAN = span(1, 0);
+
+    /**
+     * Computes the x coordinates of the blocks of a row of this area.
+     * The span has to lie within the bounds of this area.
+     * @param y The y coordinate of the row, within the bounds of this area
+     * @param z The z coordinate of the row, within the bounds of this area
+     * @return The span of the row, created by {@link #span(int, int)}, or {@link #EMPTY_SPAN}
+     */
+    protected abstract long rowSpan(int y, int z);
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        long span = rowSpan(y, z);
+        return x >= spanStart(span) && x <= spanEnd(span);
+    }
+
+    @Override
+    public long getSize() {
+        if(!isValid())
+            return 0;
+
+        long size = 0;
+        for(int y = minY; ; y++) {
+            for(int z = minZ; ; z++) {
+                long span = rowSpan(y, z);
+                size += Math.max(0, (long) spanEnd(span) - spanStart(span) + 1);
+                if(z == maxZ)
+                    break;
+            }
+            if(y == maxY)
+                break;
+        }
+        return size;
+    }
+
+    @Override
+    public void forEachBlock(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, IntTriConsumer consumer) {
+        checkValid();
+
+        //clip the box to this area
+        minX = Math.max(minX, this.minX);
+        minY = Math.max(minY, this.minY);
+        minZ = Math.max(minZ, this.minZ);
+        maxX = Math.min(maxX, this.maxX);
+        maxY = Math.min(maxY, this.maxY);
+        maxZ = Math.min(maxZ, this.maxZ);
+        if(minX > maxX || minY > maxY || minZ > maxZ)
+            return;
+
+        //the loops end on equality, so a bound of Integer.MAX_VALUE cannot overflow the loop variable
+        for(int y = minY; ; y++) {
+            for(int z = minZ; ; z++) {
+                long span = rowSpan(y, z);
+                int startX = Math.max(minX, spanStart(span));
+                int endX = Math.min(maxX, spanEnd(span));
+                if(startX <= endX) {
+                    for(int x = startX; ; x++) {
+                        consumer.accept(x, y, z);
+                        if(x == endX)
+                            break;
+                    }
+                }
+                if(z == maxZ)
+                    break;
+            }
+            if(y == maxY)
+                break;
+        }
+    }
+
+    @Override
+    protected boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for(int y = minY; ; y++) {
+            for(int z = minZ; ; z++) {
+                long span = rowSpan(y, z);
+                if(Math.max(minX, spanStart(span)) <= Math.min(maxX, spanEnd(span)))
+                    return true;
+                if(z == maxZ)
+                    break;
+            }
+            if(y == maxY)
+                return false;
+        }
+    }
+
+    @Override
+    public Iterator<Vector3> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+
+
+    /**
+     * Packs the first and last x coordinate of a row into a single long, so spans can be returned without allocation.
+     * @param startX The first x coordinate, inclusive
+     * @param endX The last x coordinate, inclusive
+     * @return The span
+     */
+    protected static long span(int startX, int endX) {
+        return ((long) startX << 32) | (endX & 0xFFFFFFFFL);
+    }
+
+    protected static int spanStart(long span) {
+        return (int) (span >> 32);
+    }
+
+    protected static int spanEnd(long span) {
+        return (int) span;
+    }
+
+    /**
+     * Computes the span of blocks whose centers lie within a given distance of the center of the x bounds of this area,
+     * the distance being a fraction of the half width of the bounds.
+     * Used by areas inscribed in their bounds.
+     * @param fraction The fraction of the half width, between 0 and 1
+     * @return The span
+     */
+    protected long centeredSpan(double fraction) {
+        //in doubled coordinates, the block center 2x + 1 has to lie within the width of the bounds around minX + maxX + 1
+        double halfWidth = ((double) maxX - minX + 1) * fraction;
+        double doubledCenter = (double) minX + maxX;
+        return span((int) Math.ceil((doubledCenter - halfWidth) / 2), (int) Math.floor((doubledCenter + halfWidth) / 2));
+    }
+
+    /**
+     * Computes the offset of a block's center from the center of the given bounds, relative to their half width.
+     * @return The offset, between -1 and 1 for coordinates within the bounds
+     */
+    protected static double relativeOffset(int coordinate, int min, int max) {
+        return (2.0 * coordinate - min - max) / ((double) max - min + 1);
+    }
+}
@@ -0,0 +1,267 @@
+package net.codedstingray.worldshaper.core.area;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The set of selected blocks of a single chunk section, as indices {@code y << 8 | z << 4 | x} of the block coordinates
+ * within the section, so ascending indices follow the iteration order of areas.
+ * <p>
+ * Depending on the number and distribution of its blocks, a section is stored as a sorted array of indices,
+ * as sorted runs of consecutive indices, or as a bitmap of all 4096 blocks, whichever takes the least memory.
+ * Adding and removing switches between arrays and bitmaps as the cardinality changes; runs are only chosen by
+ * {@link #optimize()}, since they are meant for sections that are read far more often than they change.
+ */
+abstract class SectionSet {
+
+    static final int BLOCKS = Area.SECTION_SIZE * Area.SECTION_SIZE * Area.SECTION_SIZE;
+
+    /**
+     * Above this cardinality, an array of 16 bit indices takes more memory than a bitmap
+     */
+    static final int ARRAY_MAX = BLOCKS / 16;
+
+    static int index(int x, int y, int z) {
+        return (y & 0xF) << 8 | (z & 0xF) << 4 | (x & 0xF);
+    }
+
+    abstract boolean contains(int index);
+
+    /**
+     * Adds an index that is not contained yet.
+     * @return The set containing the index, which may be a different set
+     */
+    abstract SectionSet add(int index);
+
+    /**
+     * Removes a contained index.
+     * @return The set without the index, which may be a different set
+     */
+    abstract SectionSet remove(int index);
+
+    abstract int cardinality();
+
+    /**
+     * Calls the given consumer with all indices of this set, in ascending order
+     */
+    abstract void forEach(IntConsumer consumer);
+
+    /**
+     * @return The approximate memory this set takes, in bytes
+     */
+    abstract int getMemorySize();
+
+    /**
+     * Converts this set into the representation taking the least memory.
+     * @return The optimized set, which may be this set
+     */
+    SectionSet optimize() {
+        int cardinality = cardinality();
+        int[] runCount = new int[1];
+        int[] previous = {-2};
+        forEach(index -> {
+            if(index != previous[0] + 1)
+                runCount[0]++;
+            previous[0] = index;
+        });
+
+        int arraySize = cardinality * 2;
+        int runSize = runCount[0] * 4;
+        int bitmapSize = BLOCKS / 8;
+        if(runSize < arraySize && runSize < bitmapSize)
+            return this instanceof RunSet ? this : RunSet.of(this, runCount[0]);
+        if(arraySize <= bitmapSize)
+            return ArraySet.of(this); //also trims the spare capacity of arrays
+        return this instanceof BitmapSet ? this : BitmapSet.of(this);
+    }
+
+    /**
+     * Sorted array of indices, for sparse sections
+     */
+    static class ArraySet extends SectionSet {
+        private short[] values = new short[4];
+        private int size = 0;
+
+        @Override
+        boolean contains(int index) {
+            return Arrays.binarySearch(values, 0, size, (short) index) >= 0;
+        }
+
+        @Override
+        SectionSet add(int index) {
+            if(size == ARRAY_MAX)
+                return BitmapSet.of(this).add(index);
+
+            int insertion = -Arrays.binarySearch(values, 0, size, (short) index) - 1;
+            if(size == values.length)
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+            values[insertion] = (short) index;
+            size++;
+            return this;
+        }
+
+        @Override
+        SectionSet remove(int index) {
+            int position = Arrays.binarySearch(values, 0, size, (short) index);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for(int i = 0; i < size; i++) {
+                consumer.accept(values[i]);
+            }
+        }
+
+        @Override
+        int getMemorySize() {
+            return values.length * 2;
+        }
+
+        static ArraySet of(SectionSet set) {
+            ArraySet array = new ArraySet();
+            array.values = new short[Math.max(1, set.cardinality())];
+            set.forEach(index -> array.values[array.size++] = (short) index);
+            return array;
+        }
+    }
+
+    /**
+     * Bitmap of all blocks of the section, for dense sections
+     */
+    static class BitmapSet extends SectionSet {
+        private final long[] words = new long[BLOCKS / 64];
+        private int cardinality = 0;
+
+        @Override
+        boolean contains(int index) {
+            return (words[index >>> 6] & 1L << index) != 0;
+        }
+
+        @Override
+        SectionSet add(int index) {
+            words[index >>> 6] |= 1L << index;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        SectionSet remove(int index) {
+            words[index >>> 6] &= ~(1L << index);
+            cardinality--;
+            //convert back with some slack, so alternating adds and removes do not convert every time
+            return cardinality < ARRAY_MAX / 2 ? ArraySet.of(this) : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for(int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while(bits != 0) {
+                    consumer.accept(word << 6 | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        @Override
+        int getMemorySize() {
+            return words.length * 8;
+        }
+
+        static BitmapSet of(SectionSet set) {
+            BitmapSet bitmap = new BitmapSet();
+            set.forEach(index -> bitmap.words[index >>> 6] |= 1L << index);
+            bitmap.cardinality = set.cardinality();
+            return bitmap;
+        }
+    }
+
+    /**
+     * Sorted runs of consecutive indices, for sections consisting of few contiguous rows or layers
+     */
+    static class RunSet extends SectionSet {
+        //first index and length minus one of each run
+        private final short[] starts;
+        private final short[] lengths;
+        private final int cardinality;
+
+        private RunSet(short[] starts, short[] lengths, int cardinality) {
+            this.starts = starts;
+            this.lengths = lengths;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(int index) {
+            int run = Arrays.binarySearch(starts, (short) index);
+            if(run >= 0)
+                return true;
+
+            //the run starting before the index
+            run = -run - 2;
+            return run >= 0 && index <= starts[run] + lengths[run];
+        }
+
+        @Override
+        SectionSet add(int index) {
+            //runs are immutable; changing them converts to a mutable representation
+            SectionSet set = cardinality < ARRAY_MAX ? ArraySet.of(this) : BitmapSet.of(this);
+            return set.add(index);
+        }
+
+        @Override
+        SectionSet remove(int index) {
+            SectionSet set = cardinality <= ARRAY_MAX ? ArraySet.of(this) : BitmapSet.of(this);
+            return set.remove(index);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(IntConsumer consumer) {
+            for(int run = 0; run < starts.length; run++) {
+                int end = starts[run] + lengths[run];
+                for(int index = starts[run]; index <= end; index++) {
+                    consumer.accept(index);
+                }
+            }
+        }
+
+        @Override
+        int getMemorySize() {
+            return starts.length * 4;
+        }
+
+        static RunSet of(SectionSet set, int runCount) {
+            short[] starts = new short[runCount];
+            short[] lengths = new short[runCount];
+            int[] run = {-1};
+            int[] previous = {-2};
+            set.forEach(index -> {
+                if(index != previous[0] + 1)
+                    starts[++run[0]] = (short) index;
+                else
+                    lengths[run[0]]++;
+                previous[0] = index;
+            });
+            return new RunSet(starts, lengths, set.cardinality());
+        }
+    }
+}
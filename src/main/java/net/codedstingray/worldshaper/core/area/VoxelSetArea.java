@@ -0,0 +1,399 @@
+package net.codedstingray.worldshaper.core.area;
+
+import net.codedstingray.worldshaper.core.util.function.IntTriConsumer;
+import net.codedstingray.worldshaper.core.util.vector.Vector3;
+import net.codedstingray.worldshaper.core.util.vector.Vector3I;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * An arbitrary set of blocks, e.g. the result of a flood fill or a mask. Unlike other areas, it is not defined by
+ * positions; blocks are added and removed individually or taken from other areas, and positions set on it are
+ * added as blocks.
+ * <p>
+ * Blocks are stored per chunk section in a {@link SectionSet}, which picks an array, run or bitmap representation
+ * depending on how many blocks of the section are selected, so memory stays proportional to the selected blocks.
+ * Sections without blocks are not stored at all. The sections are kept sorted in the iteration order of
+ * {@link #forEachSection(IntTriConsumer)}, so all iteration visits only stored sections, in section order.
+ */
+public class VoxelSetArea extends Area {
+
+    /**
+     * Chunk columns by column key, each mapping section y coordinates to the blocks of the section
+     */
+    private final TreeMap<Long, TreeMap<Integer, SectionSet>> columns = new TreeMap<>();
+
+    private long size = 0;
+
+    /**
+     * Whether the cached bounds may be larger than the stored blocks after removals;
+     * they are recomputed on the next call of {@link #getMinPos()} or {@link #getMaxPos()}
+     */
+    private boolean boundsStale = false;
+
+    private Vector3 minPos = null;
+    private Vector3 maxPos = null;
+
+    /**
+     * @param world The world of the blocks of this area
+     */
+    public VoxelSetArea(UUID world) {
+        worldUUID = world;
+    }
+
+    /**
+     * Adds the block at the given position, e.g. when picked with the area wand. Voxel sets do not store positions,
+     * so the index is ignored. A block in a different world than the area replaces all blocks of the area.
+     */
+    @Override
+    public void setPosition(int index, Vector3 position, UUID world) {
+        if(!world.equals(worldUUID)) {
+            worldUUID = world;
+            clear();
+        }
+        add(position.getBlockX(), position.getBlockY(), position.getBlockZ());
+    }
+
+    @Override
+    public Vector3 getPosition(int index) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    @Override
+    public int getPositionCount() {
+        return 0;
+    }
+
+    /**
+     * Positions picked for a voxel set are added as blocks, at any index
+     */
+    @Override
+    public int getNextPositionIndex() {
+        return 0;
+    }
+
+    /**
+     * Equivalent to {@link #clear()}
+     */
+    @Override
+    public void clearPositions() {
+        clear();
+    }
+
+    /**
+     * Adds a block to this area.
+     * @param x The x coordinate of the block
+     * @param y The y coordinate of the block
+     * @param z The z coordinate of the block
+     * @return true if the block was not part of this area before
+     */
+    public boolean add(int x, int y, int z) {
+        TreeMap<Integer, SectionSet> column = columns.computeIfAbsent(columnKey(x >> SECTION_SHIFT, z >> SECTION_SHIFT),
+                key -> new TreeMap<>());
+        int sectionY = y >> SECTION_SHIFT;
+        int index = SectionSet.index(x, y, z);
+
+        SectionSet section = column.get(sectionY);
+        if(section == null) {
+            section = new SectionSet.ArraySet();
+        } else if(section.contains(index)) {
+            return false;
+        }
+        column.put(sectionY, section.add(index));
+
+        if(size++ == 0) {
+            boundsStale = false;
+            minX = maxX = x;
+            minY = maxY = y;
+            minZ = maxZ = z;
+        } else {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        minPos = null;
+        maxPos = null;
+        return true;
+    }
+
+    /**
+     * Removes a block from this area.
+     * @param x The x coordinate of the block
+     * @param y The y coordinate of the block
+     * @param z The z coordinate of the block
+     * @return true if the block was part of this area
+     */
+    public boolean remove(int x, int y, int z) {
+        long columnKey = columnKey(x >> SECTION_SHIFT, z >> SECTION_SHIFT);
+        TreeMap<Integer, SectionSet> column = columns.get(columnKey);
+        if(column == null)
+            return false;
+
+        int sectionY = y >> SECTION_SHIFT;
+        int index = SectionSet.index(x, y, z);
+        SectionSet section = column.get(sectionY);
+        if(section == null || !section.contains(index))
+            return false;
+
+        if(section.cardinality() == 1) {
+            column.remove(sectionY);
+            if(column.isEmpty())
+                columns.remove(columnKey);
+        } else {
+            column.put(sectionY, section.remove(index));
+        }
+
+        size--;
+        boundsStale = true;
+        minPos = null;
+        maxPos = null;
+        return true;
+    }
+
+    /**
+     * Adds all blocks of another area to this area.
+     * @param area The area
+     * @throws IllegalArgumentException If the area is in a different world
+     * @throws IllegalStateException If the area is not valid
+     */
+    public void addAll(Area area) {
+        if(!worldUUID.equals(area.getWorldUUID()))
+            throw new IllegalArgumentException("Unable to add blocks of an area in a different world");
+        area.forEachBlockBySection(this::add);
+    }
+
+    /**
+     * Removes all blocks from this area.
+     */
+    public void clear() {
+        columns.clear();
+        size = 0;
+        boundsStale = false;
+        minPos = null;
+        maxPos = null;
+    }
+
+    /**
+     * Converts the block set of every section into the representation taking the least memory,
+     * e.g. after this area has been filled.
+     */
+    public void optimize() {
+        for(TreeMap<Integer, SectionSet> column: columns.values()) {
+            column.replaceAll((sectionY, section) -> section.optimize());
+        }
+    }
+
+    /**
+     * @return The approximate memory taken by the block sets of the sections, in bytes
+     */
+    public long getMemorySize() {
+        long memorySize = 0;
+        for(TreeMap<Integer, SectionSet> column: columns.values()) {
+            for(SectionSet section: column.values()) {
+                memorySize += section.getMemorySize();
+            }
+        }
+        return memorySize;
+    }
+
+    /**
+     * A voxel set is valid as long as it contains blocks
+     */
+    @Override
+    public boolean isValid() {
+        return size > 0 && worldUUID != null;
+    }
+
+    @Override
+    public Vector3 getMinPos() {
+        if(!isValid())
+            return null;
+        refreshBounds();
+        if(minPos == null)
+            minPos = new Vector3I(minX, minY, minZ);
+        return minPos;
+    }
+
+    @Override
+    public Vector3 getMaxPos() {
+        if(!isValid())
+            return null;
+        refreshBounds();
+        if(maxPos == null)
+            maxPos = new Vector3I(maxX, maxY, maxZ);
+        return maxPos;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    protected boolean containsInBounds(int x, int y, int z) {
+        TreeMap<Integer, SectionSet> column = columns.get(columnKey(x >> SECTION_SHIFT, z >> SECTION_SHIFT));
+        if(column == null)
+            return false;
+
+        SectionSet section = column.get(y >> SECTION_SHIFT);
+        return section != null && section.contains(SectionSet.index(x, y, z));
+    }
+
+    /**
+     * Calls the given consumer with the coordinates of every block in this area, in section order.
+     * @param consumer The consumer to call for each block
+     * @throws IllegalStateException If this area is not valid
+     */
+    @Override
+    public void forEachBlock(IntTriConsumer consumer) {
+        checkValid();
+        for(Map.Entry<Long, TreeMap<Integer, SectionSet>> column: columns.entrySet()) {
+            int x = columnX(column.getKey()) << SECTION_SHIFT;
+            int z = columnZ(column.getKey()) << SECTION_SHIFT;
+            for(Map.Entry<Integer, SectionSet> section: column.getValue().entrySet()) {
+                int y = section.getKey() << SECTION_SHIFT;
+                section.getValue().forEach(index -> consumer.accept(x | index & 0xF, y | index >>> 8, z | index >>> 4 & 0xF));
+            }
+        }
+    }
+
+    /**
+     * Equivalent to {@link #forEachBlock(IntTriConsumer)}, which already visits the blocks in section order
+     */
+    @Override
+    public void forEachBlockBySection(IntTriConsumer consumer) {
+        forEachBlock(consumer);
+    }
+
+    @Override
+    public void forEachBlock(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, IntTriConsumer consumer) {
+        checkValid();
+        if(minX > maxX || minY > maxY || minZ > maxZ)
+            return;
+
+        int minSectionX = minX >> SECTION_SHIFT, maxSectionX = maxX >> SECTION_SHIFT;
+        NavigableMap<Long, TreeMap<Integer, SectionSet>> columnRange = columns.subMap(
+                columnKey(minSectionX, minZ >> SECTION_SHIFT), true, columnKey(maxSectionX, maxZ >> SECTION_SHIFT), true);
+        for(Map.Entry<Long, TreeMap<Integer, SectionSet>> column: columnRange.entrySet()) {
+            int sectionX = columnX(column.getKey());
+            if(sectionX < minSectionX || sectionX > maxSectionX)
+                continue;
+
+            int x = sectionX << SECTION_SHIFT;
+            int z = columnZ(column.getKey()) << SECTION_SHIFT;
+            for(Map.Entry<Integer, SectionSet> section: column.getValue()
+                    .subMap(minY >> SECTION_SHIFT, true, maxY >> SECTION_SHIFT, true).entrySet()) {
+                int y = section.getKey() << SECTION_SHIFT;
+                section.getValue().forEach(index -> {
+                    int blockX = x | index & 0xF;
+                    int blockY = y | index >>> 8;
+                    int blockZ = z | index >>> 4 & 0xF;
+                    if(inRange(blockX, minX, maxX) && inRange(blockY, minY, maxY) && inRange(blockZ, minZ, maxZ))
+                        consumer.accept(blockX, blockY, blockZ);
+                });
+            }
+        }
+    }
+
+    /**
+     * Calls the given consumer with the section coordinates of every stored section, in the order documented by
+     * {@link Area#forEachSection(IntTriConsumer)}.
+     */
+    @Override
+    public void forEachSection(IntTriConsumer consumer) {
+        checkValid();
+        for(Map.Entry<Long, TreeMap<Integer, SectionSet>> column: columns.entrySet()) {
+            int sectionX = columnX(column.getKey());
+            int sectionZ = columnZ(column.getKey());
+            for(int sectionY: column.getValue().keySet()) {
+                consumer.accept(sectionX, sectionY, sectionZ);
+            }
+        }
+    }
+
+    /**
+     * Returns a spliterator over the stored chunk columns only, instead of all columns of the bounding box.
+     * @return The spliterator
+     * @throws IllegalStateException If this area is not valid
+     */
+    @Override
+    public AreaSpliterator spliterator() {
+        checkValid();
+        int[] chunkColumns = new int[columns.size() * 2];
+        int i = 0;
+        for(long columnKey: columns.keySet()) {
+            chunkColumns[i++] = columnX(columnKey);
+            chunkColumns[i++] = columnZ(columnKey);
+        }
+        return new AreaSpliterator(this, chunkColumns);
+    }
+
+    @Override
+    public Iterator<Vector3> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Recomputes the bounds after blocks have been removed
+     */
+    private void refreshBounds() {
+        if(!boundsStale)
+            return;
+
+        boolean[] first = {true};
+        forEachSection((sectionX, sectionY, sectionZ) -> {
+            int x = sectionX << SECTION_SHIFT;
+            int y = sectionY << SECTION_SHIFT;
+            int z = sectionZ << SECTION_SHIFT;
+            //only sections reaching past the current bounds can contain new extremes
+            if(!first[0] && x > minX && x + SECTION_SIZE - 1 < maxX && y > minY && y + SECTION_SIZE - 1 < maxY
+                    && z > minZ && z + SECTION_SIZE - 1 < maxZ)
+                return;
+
+            columns.get(columnKey(sectionX, sectionZ)).get(sectionY).forEach(index -> {
+                int blockX = x | index & 0xF;
+                int blockY = y | index >>> 8;
+                int blockZ = z | index >>> 4 & 0xF;
+                if(first[0]) {
+                    minX = maxX = blockX;
+                    minY = maxY = blockY;
+                    minZ = maxZ = blockZ;
+                    first[0] = false;
+                } else {
+                    minX = Math.min(minX, blockX);
+                    minY = Math.min(minY, blockY);
+                    minZ = Math.min(minZ, blockZ);
+                    maxX = Math.max(maxX, blockX);
+                    maxY = Math.max(maxY, blockY);
+                    maxZ = Math.max(maxZ, blockZ);
+                }
+            });
+        });
+        boundsStale = false;
+    }
+
+
+
+    /**
+     * Packs the coordinates of a chunk column into a key whose signed order is z, then x order
+     */
+    private static long columnKey(int sectionX, int sectionZ) {
+        return (long) sectionZ << 32 | (sectionX ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+    }
+
+    private static int columnX(long columnKey) {
+        return (int) columnKey ^ Integer.MIN_VALUE;
+    }
+
+    private static int columnZ(long columnKey) {
+        return (int) (columnKey >> 32);
+    }
+}
@@ -1,21 +1,80 @@
 package net.codedstingray.worldshaper.core.function;
 
+import net.codedstingray.worldshaper.core.world.block.BlockState;
+import net.codedstingray.worldshaper.core.world.block.BlockTag;
 import net.codedstingray.worldshaper.core.world.block.BlockType;
+import net.codedstingray.worldshaper.core.world.block.exception.BlockStateParseException;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A pattern choosing the block type to place at each position.
+ * A pattern of several block types, e.g. parsed from a {@link BlockTag}, chooses one of them at random for each block.
+ * A pattern parsed from a block state with traits places exactly that state.
+ */
 public class Pattern {
 
-    private BlockType blockType;
+    private final BlockType[] blockTypes;
+    private final BlockState blockState;
+
+    public Pattern(BlockType... blockTypes) {
+        if(blockTypes.length == 0)
+            throw new IllegalArgumentException("A pattern needs at least one block type");
+        this.blockTypes = blockTypes.clone();
+        this.blockState = null;
+    }
 
-    public Pattern(BlockType blockType) {
-        this.blockType = blockType;
+    public Pattern(BlockState blockState) {
+        this.blockTypes = new BlockType[] {blockState.getBlockType()};
+        this.blockState = blockState;
     }
 
     //TODO replace with apply function
-    public BlockType getBlockType() {
-        return blockType;
+    public List<BlockType> getBlockTypes() {
+        return Collections.unmodifiableList(Arrays.asList(blockTypes));
+    }
+
+    /**
+     * @return The block state to place, or null if this pattern places the default state of its block types
+     */
+    public BlockState getBlockState() {
+        return blockState;
     }
 
+    /**
+     * @return The index into {@link #getBlockTypes()} of the block type to place next
+     */
+    public int nextIndex() {
+        return blockTypes.length == 1 ? 0 : ThreadLocalRandom.current().nextInt(blockTypes.length);
+    }
+
+    /**
+     * Parses a pattern, which is either a block type ID, a block state like {@code oak_stairs[facing=east]}
+     * or a block tag prefixed with {@value BlockTag#PREFIX}.
+     * @param input The input
+     * @return The pattern
+     * @throws PatternParseException If the input is neither a registered block type, a valid block state
+     * nor a registered tag
+     */
     public static Pattern parse(String input) {
+        if(input.indexOf('[') >= 0) {
+            try {
+                return new Pattern(BlockState.parseBlockState(input));
+            } catch (BlockStateParseException e) {
+                throw new PatternParseException(e.getMessage(), e);
+            }
+        }
+
+        if(!input.isEmpty() && input.charAt(0) == BlockTag.PREFIX) {
+            BlockTag tag = BlockTag.getByID(input);
+            if(tag == null)
+                throw new PatternParseException("Unknown block tag \"" + input + "\"");
+            return new Pattern(tag.getBlockTypes().toArray(new BlockType[0]));
+        }
+
         BlockType blockType = BlockType.getByID(input);
         if(blockType == null)
             throw new PatternParseException("Unable to parse material \"" + input + "\"");
@@ -0,0 +1,10 @@
+package net.codedstingray.worldshaper.core.util.function;
+
+/**
+ * Operation accepting three int arguments, e.g. block coordinates, without boxing them
+ */
+@FunctionalInterface
+public interface IntTriConsumer {
+
+    void accept(int x, int y, int z);
+}
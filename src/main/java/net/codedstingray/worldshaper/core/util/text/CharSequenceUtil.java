@@ -0,0 +1,84 @@
+package net.codedstingray.worldshaper.core.util.text;
+
+public class CharSequenceUtil {
+
+    /**
+     * Initial hash value for {@link #hash(long, CharSequence, int, int)}
+     */
+    public static final long HASH_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    /**
+     * Checks whether the given region of a CharSequence consists of exactly the characters of the given String.
+     * Unlike {@link String#regionMatches(int, String, int, int)} this works on any CharSequence and does not require
+     * the region to be copied into a String first.
+     * @param input The CharSequence containing the region
+     * @param start The start index of the region, inclusive
+     * @param end The end index of the region, exclusive
+     * @param other The String to compare the region to
+     * @return true if the region and the String are equal
+     */
+    public static boolean regionEquals(CharSequence input, int start, int end, String other) {
+        int length = end - start;
+        if(length != other.length())
+            return false;
+
+        for(int i = 0; i < length; i++) {
+            if(input.charAt(start + i) != other.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #regionEquals(CharSequence, int, int, String)}, but ignores the case of ASCII letters.
+     * @param input The CharSequence containing the region
+     * @param start The start index of the region, inclusive
+     * @param end The end index of the region, exclusive
+     * @param other The String to compare the region to
+     * @return true if the region and the String are equal, ignoring case
+     */
+    public static boolean regionEqualsIgnoreCase(CharSequence input, int start, int end, String other) {
+        int length = end - start;
+        if(length != other.length())
+            return false;
+
+        for(int i = 0; i < length; i++) {
+            if(toLowerCaseAscii(input.charAt(start + i)) != toLowerCaseAscii(other.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the 64 bit FNV-1a hash over the UTF-16 chars of the given region, continuing from the given hash.
+     * Hashing a String in several parts yields the same result as hashing the concatenated String,
+     * which allows hashing composite keys without concatenating them.
+     * @param hash The hash to continue from, {@link #HASH_OFFSET_BASIS} to start a new hash
+     * @param input The CharSequence containing the region
+     * @param start The start index of the region, inclusive
+     * @param end The end index of the region, exclusive
+     * @return The hash
+     */
+    public static long hash(long hash, CharSequence input, int start, int end) {
+        for(int i = start; i < end; i++) {
+            hash ^= input.charAt(i);
+            hash *= HASH_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Same as {@link #hash(long, CharSequence, int, int)} over the whole CharSequence.
+     * @param hash The hash to continue from, {@link #HASH_OFFSET_BASIS} to start a new hash
+     * @param input The CharSequence to hash
+     * @return The hash
+     */
+    public static long hash(long hash, CharSequence input) {
+        return hash(hash, input, 0, input.length());
+    }
+
+    private static char toLowerCaseAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
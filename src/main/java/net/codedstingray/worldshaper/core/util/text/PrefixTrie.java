@@ -0,0 +1,103 @@
+package net.codedstingray.worldshaper.core.util.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of Strings supporting fast prefix queries, e.g. for tab completion.
+ * <p>
+ * Every node of the trie corresponds to one prefix and caches the sorted list of words starting with that prefix
+ * the first time it is queried, so repeated queries for the same prefix only walk the prefix.
+ * Words have to be added before the trie is first queried.
+ */
+public final class PrefixTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * Adds a word to this trie.
+     * @param word The word
+     */
+    public void add(String word) {
+        Node node = root;
+        for(int i = 0; i < word.length(); i++) {
+            node = node.getOrCreateChild(word.charAt(i));
+        }
+        node.word = word;
+    }
+
+    /**
+     * Returns all words starting with the given prefix.
+     * @param prefix The prefix
+     * @return The words in lexicographical order; an unmodifiable list that is shared between calls
+     */
+    public List<String> complete(CharSequence prefix) {
+        Node node = root;
+        for(int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(prefix.charAt(i));
+        }
+        return node == null ? Collections.emptyList() : node.getCompletions();
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private String word;
+
+        /**
+         * The words in this subtree; immutable once computed, so it can be shared without synchronization
+         */
+        private List<String> completions;
+
+        private Node getChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node getOrCreateChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if(index >= 0)
+                return children[index];
+
+            //keep the keys sorted, so traversal visits words in lexicographical order
+            int insertion = -index - 1;
+            char[] keys = new char[this.keys.length + 1];
+            Node[] children = new Node[this.children.length + 1];
+            System.arraycopy(this.keys, 0, keys, 0, insertion);
+            System.arraycopy(this.children, 0, children, 0, insertion);
+            System.arraycopy(this.keys, insertion, keys, insertion + 1, this.keys.length - insertion);
+            System.arraycopy(this.children, insertion, children, insertion + 1, this.children.length - insertion);
+
+            Node child = new Node();
+            keys[insertion] = c;
+            children[insertion] = child;
+            this.keys = keys;
+            this.children = children;
+            return child;
+        }
+
+        private List<String> getCompletions() {
+            List<String> completions = this.completions;
+            if(completions == null) {
+                List<String> words = new ArrayList<>();
+                collect(words);
+                this.completions = completions = Collections.unmodifiableList(words);
+            }
+            return completions;
+        }
+
+        private void collect(List<String> words) {
+            if(word != null)
+                words.add(word);
+            for(Node child: children) {
+                List<String> childCompletions = child.completions;
+                if(childCompletions != null)
+                    words.addAll(childCompletions);
+                else
+                    child.collect(words);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.util.text.PrefixTrie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Completion of partially typed block types, block states and patterns, e.g. for command tab completion.
+ * <p>
+ * Block type IDs and tags are completed from prefix tries whose nodes cache their results, so completing a prefix
+ * that was completed before only walks the prefix. The tries are built on first use, which has to happen after
+ * the {@link BlockRegistry block registries} have been sealed.
+ */
+public final class BlockCompletions {
+
+    private BlockCompletions() {}
+
+    /**
+     * Completes a block type ID. IDs in the {@value BlockType#NAMESPACE_MINECRAFT} namespace are completed without
+     * namespace unless the input contains one.
+     * @param input The partial block type ID
+     * @return The matching block type IDs
+     */
+    public static List<String> completeBlockType(String input) {
+        return input.indexOf(':') < 0 ? Tries.BARE_TYPE_IDS.complete(input) : Tries.NAMESPACED_TYPE_IDS.complete(input);
+    }
+
+    /**
+     * Completes a block tag, prefixed with {@value BlockTag#PREFIX}.
+     * @param input The partial tag
+     * @return The matching tags, including the prefix
+     */
+    public static List<String> completeTag(String input) {
+        return Tries.TAGS.complete(input);
+    }
+
+    /**
+     * Completes a pattern, i.e. a block type ID, a block state or a block tag.
+     * Once the input contains a bracket, it is completed as a block state by {@link #completeBlockState(String)}.
+     * @param input The partial pattern
+     * @return The matching patterns
+     */
+    public static List<String> completePattern(String input) {
+        if(input.indexOf('[') >= 0)
+            return completeBlockState(input);
+
+        if(input.isEmpty()) {
+            List<String> completions = new ArrayList<>(completeTag(input));
+            completions.addAll(completeBlockType(input));
+            return completions;
+        }
+        return input.charAt(0) == BlockTag.PREFIX ? completeTag(input) : completeBlockType(input);
+    }
+
+    /**
+     * Completes a block state of the format {@code namespace:type[trait=value,trait=value]}.
+     * Before the opening bracket, the block type is completed; after it, the trait keys that have not been given yet,
+     * or the values of the trait whose key precedes the last {@code =}.
+     * @param input The partial block state
+     * @return The matching block states, each consisting of the complete input up to the completed part
+     */
+    public static List<String> completeBlockState(String input) {
+        int bracket = input.indexOf('[');
+        if(bracket < 0)
+            return completeBlockType(input);
+
+        BlockType blockType = BlockType.getByID(input, 0, bracket);
+        if(blockType == null || input.indexOf(']') >= 0)
+            return Collections.emptyList();
+
+        int segmentStart = Math.max(input.lastIndexOf(',') + 1, bracket + 1);
+        String head = input.substring(0, segmentStart);
+        String segment = input.substring(segmentStart);
+
+        List<String> completions = new ArrayList<>();
+        int equals = segment.indexOf('=');
+        if(equals < 0) {
+            Set<String> givenKeys = givenKeys(input, bracket + 1, segmentStart);
+            for(BlockTrait<?> trait: blockType.traits) {
+                if(trait.getKey().startsWith(segment) && !givenKeys.contains(trait.getKey()))
+                    completions.add(head + trait.getKey() + "=");
+            }
+        } else {
+            String key = segment.substring(0, equals);
+            BlockTrait<?> trait = blockType.getTrait(key);
+            if(trait == null)
+                return Collections.emptyList();
+
+            String valuePrefix = segment.substring(equals + 1);
+            for(int i = 0; i < trait.getValueCount(); i++) {
+                String value = String.valueOf(trait.getValue(i));
+                if(value.startsWith(valuePrefix))
+                    completions.add(head + key + "=" + value);
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Collects the keys of the trait-value pairs in the given region
+     */
+    private static Set<String> givenKeys(String input, int start, int end) {
+        Set<String> keys = new HashSet<>();
+        int pairStart = start;
+        while(pairStart < end) {
+            int pairEnd = input.indexOf(',', pairStart);
+            if(pairEnd < 0 || pairEnd > end)
+                pairEnd = end;
+            int equals = input.indexOf('=', pairStart);
+            if(equals >= 0 && equals < pairEnd)
+                keys.add(input.substring(pairStart, equals).trim());
+            pairStart = pairEnd + 1;
+        }
+        return keys;
+    }
+
+    /**
+     * Holder of the tries, which are built when this class is first initialized
+     */
+    private static class Tries {
+        private static final PrefixTrie BARE_TYPE_IDS = new PrefixTrie();
+        private static final PrefixTrie NAMESPACED_TYPE_IDS = new PrefixTrie();
+        private static final PrefixTrie TAGS = new PrefixTrie();
+
+        static {
+            for(BlockType blockType: BlockType.BY_ORDINAL) {
+                NAMESPACED_TYPE_IDS.add(blockType.namespacedID);
+                BARE_TYPE_IDS.add(BlockType.NAMESPACE_MINECRAFT.equals(blockType.namespace)
+                        ? blockType.id : blockType.namespacedID);
+            }
+            for(BlockTag tag: BlockTag.BY_ID.values()) {
+                TAGS.add(tag.toString());
+            }
+        }
+    }
+}
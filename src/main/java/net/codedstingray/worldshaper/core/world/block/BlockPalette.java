@@ -0,0 +1,108 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+import net.codedstingray.worldshaper.core.util.text.CharSequenceUtil;
+
+/**
+ * Global palette assigning every valid block state a dense integer ID.
+ * <p>
+ * The states of a block type occupy a contiguous range of IDs, starting at {@link BlockType#getFirstStateID()}.
+ * Within that range, a state's ID is a mixed-radix number made up of the value indices of the type's traits,
+ * with the first declared trait being the least significant digit.
+ * This allows storing blocks as plain {@code int[]} or {@code short[]} arrays instead of object graphs.
+ */
+public final class BlockPalette {
+
+    /**
+     * All block states, indexed by their state ID
+     */
+    private static volatile BlockState[] byStateID = new BlockState[0];
+
+    private static volatile long fingerprint;
+
+    private BlockPalette() {}
+
+    /**
+     * Lays out the palette and creates all block states.
+     * @throws IllegalStateException If the block registries have already been sealed
+     */
+    public static void init() {
+        if(BlockRegistry.isSealed())
+            throw new IllegalStateException("Unable to initialize the block palette; the block registries have been sealed");
+
+        int stateCount = 0;
+        for(BlockType type: BlockType.BY_ORDINAL) {
+            type.initPalette(stateCount);
+            stateCount = Math.addExact(stateCount, type.getStateCount());
+        }
+
+        BlockState[] byStateID = new BlockState[stateCount];
+        for(BlockType type: BlockType.BY_ORDINAL) {
+            int first = type.getFirstStateID();
+            for(int i = 0; i < type.getStateCount(); i++) {
+                byStateID[first + i] = type.getStateAt(i);
+            }
+        }
+        BlockPalette.byStateID = byStateID;
+        BlockPalette.fingerprint = calculateFingerprint();
+
+        WorldShaper.getInstance().getLogger().info(stateCount + " block states have been assigned palette IDs");
+    }
+
+    /**
+     * Returns a hash over all block types, their traits and the trait values, in palette order.
+     * It changes whenever state IDs or the string forms of states change, so it can be used to validate
+     * data derived from the palette, like cached conversion tables.
+     * @return The palette fingerprint
+     */
+    public static long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return The total number of block states in the palette
+     */
+    public static int getStateCount() {
+        return byStateID.length;
+    }
+
+    private static long calculateFingerprint() {
+        long[] traitHashes = new long[BlockTrait.BY_ORDINAL.size()];
+        for(BlockTrait<?> trait: BlockTrait.BY_ORDINAL) {
+            long hash = CharSequenceUtil.hash(CharSequenceUtil.HASH_OFFSET_BASIS, trait.getKey());
+            for(int i = 0; i < trait.getValueCount(); i++) {
+                hash = CharSequenceUtil.hash(hash, "," + trait.getValue(i));
+            }
+            traitHashes[trait.getOrdinal()] = hash;
+        }
+
+        long hash = CharSequenceUtil.HASH_OFFSET_BASIS;
+        for(BlockType type: BlockType.BY_ORDINAL) {
+            hash = CharSequenceUtil.hash(hash, type.namespacedID);
+            for(BlockTrait<?> trait: type.traits) {
+                hash = (hash ^ traitHashes[trait.getOrdinal()]) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the block type the state with the given ID belongs to.
+     * @param stateID The state ID
+     * @return The block type of the state
+     * @throws ArrayIndexOutOfBoundsException If the state ID is not part of the palette
+     */
+    public static BlockType getBlockType(int stateID) {
+        return byStateID[stateID].getBlockType();
+    }
+
+    /**
+     * Returns the block state with the given ID.
+     * @param stateID The state ID
+     * @return The block state
+     * @throws ArrayIndexOutOfBoundsException If the state ID is not part of the palette
+     */
+    public static BlockState getState(int stateID) {
+        return byStateID[stateID];
+    }
+}
@@ -0,0 +1,94 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.BiPredicate;
+
+/**
+ * Precomputed {@link BlockProperty physical properties} of all block states in the {@link BlockPalette}.
+ * <p>
+ * Every property is stored as a {@link BlockStateSet}, so checks like {@link #isSolid(int)} are a single bit test.
+ * The properties depend on the game version and are therefore provided by the platform, which has to call
+ * {@link #init(BiPredicate)} after the palette has been initialized. Until then no state has any property.
+ */
+public final class BlockProperties {
+
+    private static final BlockProperty[] PROPERTIES = BlockProperty.values();
+
+    /**
+     * The states with each property, indexed by property ordinal
+     */
+    private static volatile BlockStateSet[] statesByProperty = new BlockStateSet[PROPERTIES.length];
+
+    static {
+        Arrays.fill(statesByProperty, BlockStateSet.EMPTY);
+    }
+
+    private BlockProperties() {}
+
+    /**
+     * Computes the property sets for all states in the palette.
+     * @param source Tells whether a block state has a property
+     */
+    public static void init(BiPredicate<BlockState, BlockProperty> source) {
+        BitSet[] bits = new BitSet[PROPERTIES.length];
+        for(int i = 0; i < bits.length; i++) {
+            bits[i] = new BitSet(BlockPalette.getStateCount());
+        }
+
+        for(int stateID = 0; stateID < BlockPalette.getStateCount(); stateID++) {
+            BlockState state = BlockPalette.getState(stateID);
+            for(BlockProperty property: PROPERTIES) {
+                if(source.test(state, property))
+                    bits[property.ordinal()].set(stateID);
+            }
+        }
+
+        BlockStateSet[] statesByProperty = new BlockStateSet[PROPERTIES.length];
+        for(int i = 0; i < bits.length; i++) {
+            statesByProperty[i] = BlockStateSet.of(bits[i]);
+        }
+        BlockProperties.statesByProperty = statesByProperty;
+
+        WorldShaper.getInstance().getLogger().info("Block properties have been computed for "
+                + BlockPalette.getStateCount() + " block states");
+    }
+
+    /**
+     * @param property The property
+     * @return All block states with the given property
+     */
+    public static BlockStateSet getStates(BlockProperty property) {
+        return statesByProperty[property.ordinal()];
+    }
+
+    public static boolean has(int stateID, BlockProperty property) {
+        return statesByProperty[property.ordinal()].contains(stateID);
+    }
+
+    public static boolean has(BlockState state, BlockProperty property) {
+        return has(state.getStateID(), property);
+    }
+
+    public static boolean isSolid(int stateID) {
+        return has(stateID, BlockProperty.SOLID);
+    }
+
+    public static boolean isLiquid(int stateID) {
+        return has(stateID, BlockProperty.LIQUID);
+    }
+
+    public static boolean isTransparent(int stateID) {
+        return has(stateID, BlockProperty.TRANSPARENT);
+    }
+
+    public static boolean hasGravity(int stateID) {
+        return has(stateID, BlockProperty.GRAVITY);
+    }
+
+    public static boolean isAir(int stateID) {
+        return has(stateID, BlockProperty.AIR);
+    }
+}
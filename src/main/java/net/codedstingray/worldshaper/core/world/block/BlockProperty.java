@@ -0,0 +1,28 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+/**
+ * Physical properties of block states that operations commonly need to query per block
+ * @see BlockProperties
+ */
+public enum BlockProperty {
+    /**
+     * The block has a collision box entities can stand on
+     */
+    SOLID,
+    /**
+     * The block is a fluid, like water or lava
+     */
+    LIQUID,
+    /**
+     * Light and sight pass through the block, i.e. it does not fully occlude its neighbours
+     */
+    TRANSPARENT,
+    /**
+     * The block falls when it is not supported, like sand or gravel
+     */
+    GRAVITY,
+    /**
+     * The block is one of the air blocks
+     */
+    AIR
+}
@@ -0,0 +1,50 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+
+/**
+ * Lifecycle of the block registries, i.e. the registered {@link BlockTrait}s, {@link BlockType}s and {@link BlockTag}s.
+ * <p>
+ * While WorldShaper initializes, the registries are populated and laid out. Once that is done they are sealed:
+ * the registries are replaced with immutable copies and further registrations are rejected. Sealing is a volatile
+ * write, so every thread reading the registries afterwards sees them fully initialized and can use them without
+ * synchronization.
+ */
+public final class BlockRegistry {
+
+    private static volatile boolean sealed = false;
+
+    private BlockRegistry() {}
+
+    /**
+     * @return true if the registries have been sealed and no longer accept registrations
+     */
+    public static boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Seals all block registries. Has to be called after the {@link BlockPalette} and the {@link BlockTags} have been
+     * initialized; sealing the registries a second time has no effect.
+     */
+    public static synchronized void seal() {
+        if(sealed)
+            return;
+
+        BlockTrait.seal();
+        BlockType.seal();
+        BlockTag.seal();
+        sealed = true;
+
+        WorldShaper.getInstance().getLogger().info("Block registries have been sealed");
+    }
+
+    /**
+     * @param entry Description of the rejected registry entry, used in the exception message
+     * @throws IllegalStateException If the registries have been sealed
+     */
+    static void checkNotSealed(String entry) {
+        if(sealed)
+            throw new IllegalStateException("Unable to register " + entry + "; the block registries have been sealed");
+    }
+}
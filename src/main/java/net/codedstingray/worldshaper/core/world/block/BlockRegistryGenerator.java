@@ -0,0 +1,42 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Build-time generator for the precomputed block registry tables bundled with the plugin.
+ * Run by the {@code generateBlockRegistry} Gradle task; see {@link BlockTypeTable}.
+ */
+public final class BlockRegistryGenerator {
+
+    private BlockRegistryGenerator() {}
+
+    /**
+     * @param args The resource root directory to write the tables to
+     * @throws IOException If writing the tables fails
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1) {
+            System.err.println("Usage: BlockRegistryGenerator <resource directory>");
+            System.exit(1);
+        }
+
+        //referencing a constant initializes BlockTypes, which registers all vanilla block types
+        Objects.requireNonNull(BlockTypes.AIR);
+        BlockTypeTable table = BlockTypeTable.search(BlockType.BY_NAMESPACED_ID.values());
+
+        File file = new File(args[0], BlockTypeTable.RESOURCE_PATH);
+        if(!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs())
+            throw new IOException("Unable to create directory " + file.getParentFile());
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            table.write(out);
+        }
+
+        System.out.println("Wrote block type table for " + BlockType.getTypeCount() + " block types to " + file);
+    }
+}
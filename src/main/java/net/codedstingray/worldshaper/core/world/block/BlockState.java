@@ -4,20 +4,36 @@ import net.codedstingray.worldshaper.core.world.block.exception.BlockStateParseE
 
 import java.util.*;
 
-public class BlockState {
+/**
+ * An immutable block state. All states of a block type are created once when the {@link BlockPalette} is initialized,
+ * so two states are equal if and only if they are the same instance.
+ */
+public final class BlockState {
 
     /**
      * The block type
      */
-    private BlockType blockType;
+    private final BlockType blockType;
 
     /**
-     * All mapped traits with their current values
+     * The ID of this state in the global palette
      */
-    private Map<BlockTrait<?>, Object> blockTraitMap = new HashMap<>();
+    private final int stateID;
 
-    public BlockState(BlockType blockType) {
+    /**
+     * The value indices of all traits, packed into consecutive bit fields in the order of the block type's traits
+     */
+    private final long packedValues;
+
+    /**
+     * The canonical string form, computed on first use
+     */
+    private String string;
+
+    BlockState(BlockType blockType, int stateID, long packedValues) {
         this.blockType = blockType;
+        this.stateID = stateID;
+        this.packedValues = packedValues;
     }
 
     public BlockType getBlockType() {
@@ -28,97 +44,129 @@ public class BlockState {
         return blockType.getApplicableTraits();
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @return The ID of this state in the global {@link BlockPalette}
+     */
+    public int getStateID() {
+        return stateID;
+    }
+
+    /**
+     * Returns the value indices of all traits of this state, packed into one long.
+     * The bit fields follow the order of the block type's traits; each field is
+     * {@link BlockTrait#getBitsPerValue()} bits wide.
+     * @return The packed trait value indices
+     */
+    public long getPackedValues() {
+        return packedValues;
+    }
+
+    /**
+     * Returns the index of the given trait's value in this state.
+     * @param trait The trait
+     * @return The value index, or -1 if the trait is not applicable to this state's block type
+     */
+    public int getTraitValueIndex(BlockTrait<?> trait) {
+        int slot = blockType.indexOfTrait(trait);
+        return slot < 0 ? -1 : getValueIndex(slot);
+    }
+
+    /**
+     * Returns the value of the given trait in this state.
+     * @param trait The trait
+     * @param <T> The value type of the trait
+     * @return The value of the trait, or null if the trait is not applicable to this state's block type
+     */
     public <T> T getTraitValue(BlockTrait<T> trait) {
-        return (T) blockTraitMap.get(trait);
+        int slot = blockType.indexOfTrait(trait);
+        if(slot < 0)
+            return null;
+        return trait.getValue(getValueIndex(slot));
     }
 
+    /**
+     * Returns the state that differs from this one only in the value of the given trait.
+     * No new state is created; the neighbouring state is derived from the palette layout of the block type.
+     * @param trait The trait to change
+     * @param value The new value of the trait
+     * @param <T> The value type
+     * @return The state with the given trait value
+     * @throws IllegalArgumentException If the trait is not applicable to this state's block type,
+     *                                  or the value is not a possible value of the trait
+     */
     public <T> BlockState withTrait(BlockTrait<?> trait, T value) {
         if(trait.getType() != value.getClass())
             throw new IllegalArgumentException("Trait type and value class have to be identical");
-        blockTraitMap.put(trait, value);
-        return this;
+
+        int slot = blockType.indexOfTrait(trait);
+        if(slot < 0)
+            throw new IllegalArgumentException("BlockTrait \"" + trait.getID() + "\" is not applicable to block type \"" + blockType + "\"");
+
+        int valueIndex = trait.indexOfValue(value);
+        if(valueIndex < 0)
+            throw new IllegalArgumentException("\"" + value + "\" is not a possible value for trait[key=" + trait.getKey() + ",id=" + trait.getID() + "]");
+
+        return withValueIndex(slot, valueIndex);
     }
 
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(blockType);
-
-        if(!blockTraitMap.isEmpty()) {
-            sb.append('[');
-            boolean first = true;
-            for(Map.Entry<BlockTrait<?>, ?> entry: blockTraitMap.entrySet()) {
-                if(first)
-                    first = false;
-                else
-                    sb.append(',');
-                sb.append(entry.getKey()).append('=').append(entry.getValue());
-            }
-            sb.append(']');
-        }
+    /**
+     * Returns the state that differs from this one only in the value of the trait at the given position
+     * in the block type's trait list.
+     * @param slot The position of the trait
+     * @param valueIndex The index of the new value in the trait's value list
+     * @return The state with the given trait value
+     */
+    BlockState withValueIndex(int slot, int valueIndex) {
+        int localID = stateID - blockType.getFirstStateID();
+        return blockType.getStateAt(localID + (valueIndex - getValueIndex(slot)) * blockType.strides[slot]);
+    }
 
-        return sb.toString();
+    /**
+     * Decodes the value index of the trait at the given position in the block type's trait list
+     */
+    private int getValueIndex(int slot) {
+        return (int) ((packedValues >>> blockType.shifts[slot]) & blockType.masks[slot]);
     }
 
-    public static BlockState parseBlockState(String input) {
-        if(input == null || input.equals("")) {
-            throw new BlockStateParseException("Empty string or null string");
-        }
+    /**
+     * Returns the canonical string form of this state, {@code namespace:type[trait=value,trait=value]} with the traits
+     * sorted by key. Equal states always have the same string form; it is computed once and cached.
+     * @return The string form
+     */
+    @Override
+    public String toString() {
+        //racy single-check: concurrent callers may compute equal strings, but never see a partial one
+        String string = this.string;
+        if(string == null)
+            this.string = string = buildString();
+        return string;
+    }
 
-        if(input.contains("[")) {
-            //block type and block traits given
-            String[] splitInput = input.split("\\[");
-            if(splitInput.length > 2) {
-                throw new BlockStateParseException("Unexpected \"[\" at index " + (splitInput[0].length() + splitInput[1].length() - 1));
-            }
-
-            //getting the block type and state
-            String typeString = splitInput[0];
-            BlockType type = getBlockType(typeString);
-
-            BlockState state = new BlockState(type);
-
-            //getting block traits
-            String traitList = splitInput[1].trim();
-            if(traitList.endsWith("]")) {
-                //remove the trailing "]" if present; the parser also accepts strings without it
-                traitList = traitList.substring(0, traitList.length() - 1);
-            }
-
-            String[] traits = traitList.split(",");
-            for(String pair: traits) {
-                String[] splitPair = pair.split("=");
-                if(splitPair.length != 2) {
-                    throw new BlockStateParseException("Invalid block trait entry: \"" + pair + "\"; must be of format 'trait=value'");
-                }
-
-                String key = splitPair[0];
-                String value = splitPair[1];
-
-                BlockTrait<?> trait = type.getTrait(key);
-                if(trait == null) {
-                    throw new BlockStateParseException("BlockTrait \"" + key + "\" does not exist or is not applicable to block type \"" + type + "\"");
-                }
-
-                Map.Entry<BlockTrait<?>, ?> entry = BlockTrait.parseTraitValuePair(trait, value);
-
-                state.withTrait(trait, entry.getValue());
-            }
-
-            return state;
-        } else {
-            //only the block type given
-            BlockType type = getBlockType(input);
-            return new BlockState(type);
+    private String buildString() {
+        BlockTrait<?>[] traits = blockType.traits;
+        if(traits.length == 0)
+            return blockType.namespacedID;
+
+        StringBuilder sb = new StringBuilder(blockType.namespacedID.length() + traits.length * 16);
+        sb.append(blockType.namespacedID).append('[');
+        int[] order = blockType.canonicalTraitOrder;
+        for(int i = 0; i < order.length; i++) {
+            if(i > 0)
+                sb.append(',');
+            int slot = order[i];
+            sb.append(traits[slot].getKey()).append('=').append(traits[slot].getValue(getValueIndex(slot)));
         }
+        return sb.append(']').toString();
     }
 
-    private static BlockType getBlockType(String input) {
-        BlockType type = BlockType.getByID(input.trim());
-        if(type == null)
-            throw new BlockStateParseException("Unable to parse BlockType: \"" + input + "\"");
-        return type;
+    /**
+     * Parses a block state of the format {@code namespace:type[trait=value,trait=value]}.
+     * The namespace defaults to {@value BlockType#NAMESPACE_MINECRAFT}, traits that are not given keep their first value.
+     * @param input The input to parse
+     * @return The parsed block state
+     * @throws BlockStateParseException If the input is not a valid block state
+     */
+    public static BlockState parseBlockState(String input) {
+        return BlockStateParser.parse(input);
     }
 }
@@ -0,0 +1,156 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.world.block.exception.BlockStateParseException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single-pass parser for block states, backed by a bounded cache of recently parsed inputs.
+ * <p>
+ * The parser scans the input by index and resolves type, trait keys and values directly from the input,
+ * without splitting it into substrings or creating any other intermediate objects.
+ */
+final class BlockStateParser {
+
+    private static final int CACHE_SIZE = 512;
+
+    /**
+     * Recently parsed inputs, in access order
+     */
+    private static final Map<String, BlockState> CACHE = new LinkedHashMap<String, BlockState>(CACHE_SIZE * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BlockState> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private BlockStateParser() {}
+
+    static BlockState parse(String input) {
+        if(input == null || input.isEmpty()) {
+            throw new BlockStateParseException("Empty string or null string", 0);
+        }
+
+        BlockState state;
+        synchronized(CACHE) {
+            state = CACHE.get(input);
+        }
+        if(state != null)
+            return state;
+
+        state = parseUncached(input);
+        synchronized(CACHE) {
+            CACHE.put(input, state);
+        }
+        return state;
+    }
+
+    private static BlockState parseUncached(String input) {
+        int length = input.length();
+
+        //block type
+        int typeStart = skipWhitespace(input, 0);
+        int pos = typeStart;
+        while(pos < length && input.charAt(pos) != '[') {
+            pos++;
+        }
+        int typeEnd = trimEnd(input, typeStart, pos);
+        if(typeStart == typeEnd) {
+            throw new BlockStateParseException("Expected a block type at index " + typeStart, typeStart);
+        }
+
+        BlockType type = BlockType.getByID(input, typeStart, typeEnd);
+        if(type == null) {
+            throw new BlockStateParseException("Unable to parse BlockType: \"" + input.substring(typeStart, typeEnd)
+                    + "\" at index " + typeStart, typeStart);
+        }
+
+        BlockState state = type.getDefaultState();
+        if(pos == length)
+            return state;
+
+        //block traits; the closing "]" is optional
+        pos++;
+        boolean first = true;
+        while(true) {
+            pos = skipWhitespace(input, pos);
+            if(pos == length)
+                return state;
+            if(first && input.charAt(pos) == ']')
+                return expectEnd(input, pos + 1, state);
+            first = false;
+
+            //key
+            int keyStart = pos;
+            while(pos < length && !isDelimiter(input.charAt(pos))) {
+                pos++;
+            }
+            int keyEnd = trimEnd(input, keyStart, pos);
+            if(pos == length || input.charAt(pos) != '=') {
+                throw new BlockStateParseException("Invalid block trait entry at index " + keyStart
+                        + "; must be of format 'trait=value'", keyStart);
+            }
+
+            int slot = type.indexOfTrait(input, keyStart, keyEnd);
+            if(slot < 0) {
+                throw new BlockStateParseException("BlockTrait \"" + input.substring(keyStart, keyEnd)
+                        + "\" does not exist or is not applicable to block type \"" + type + "\" at index " + keyStart, keyStart);
+            }
+
+            //value
+            int valueStart = skipWhitespace(input, pos + 1);
+            pos = valueStart;
+            while(pos < length && !isDelimiter(input.charAt(pos))) {
+                pos++;
+            }
+            int valueEnd = trimEnd(input, valueStart, pos);
+
+            BlockTrait<?> trait = type.traits[slot];
+            int valueIndex = trait.parseValueIndex(input, valueStart, valueEnd);
+            if(valueIndex < 0) {
+                throw new BlockStateParseException("\"" + input.substring(valueStart, valueEnd)
+                        + "\" is not a possible value for trait[key=" + trait.getKey() + ",id=" + trait.getID()
+                        + "] at index " + valueStart, valueStart);
+            }
+            state = state.withValueIndex(slot, valueIndex);
+
+            if(pos == length)
+                return state;
+
+            char c = input.charAt(pos);
+            if(c == ']')
+                return expectEnd(input, pos + 1, state);
+            if(c != ',') {
+                throw new BlockStateParseException("Unexpected \"" + c + "\" at index " + pos, pos);
+            }
+            pos++;
+        }
+    }
+
+    private static BlockState expectEnd(String input, int pos, BlockState state) {
+        pos = skipWhitespace(input, pos);
+        if(pos != input.length()) {
+            throw new BlockStateParseException("Unexpected \"" + input.charAt(pos) + "\" at index " + pos, pos);
+        }
+        return state;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == '=' || c == ',' || c == ']' || c == '[';
+    }
+
+    private static int skipWhitespace(String input, int pos) {
+        while(pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimEnd(String input, int start, int end) {
+        while(end > start && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,131 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A mapping of block states to block states, stored as a table indexed by state ID.
+ * Remapping a block is therefore a single array load.
+ * <p>
+ * Remaps are built from type swaps: every state of the source type is mapped to the state of the target type that has
+ * the same values for all traits both types share, e.g. {@code oak_stairs[facing=east,half=top]} to
+ * {@code spruce_stairs[facing=east,half=top]}. Traits only the target type has keep their first value.
+ * States of all other types are mapped to themselves.
+ */
+public final class BlockStateRemap {
+
+    /**
+     * Caches the state tables of type swaps, keyed by the ordinals of source and target type
+     */
+    private static final Map<Long, int[]> SWAP_TABLES = new ConcurrentHashMap<>();
+
+    private final int[] targetByStateID;
+
+    private BlockStateRemap(int[] targetByStateID) {
+        this.targetByStateID = targetByStateID;
+    }
+
+    /**
+     * @param stateID The state ID
+     * @return The ID of the state the given state is mapped to
+     */
+    public int remap(int stateID) {
+        return targetByStateID[stateID];
+    }
+
+    public BlockState remap(BlockState state) {
+        return BlockPalette.getState(targetByStateID[state.getStateID()]);
+    }
+
+    /**
+     * Creates a remap swapping one block type for another.
+     * @param from The block type to replace
+     * @param to The block type to replace it with
+     * @return The remap
+     */
+    public static BlockStateRemap swap(BlockType from, BlockType to) {
+        return builder().swap(from, to).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the table mapping the states of one block type to the states of another, indexed by the state ID relative
+     * to the first state of the source type.
+     */
+    private static int[] getSwapTable(BlockType from, BlockType to) {
+        long key = ((long) from.getOrdinal() << 32) | to.getOrdinal();
+        return SWAP_TABLES.computeIfAbsent(key, k -> computeSwapTable(from, to));
+    }
+
+    private static int[] computeSwapTable(BlockType from, BlockType to) {
+        BlockTrait<?>[] targetTraits = to.traits;
+
+        //for each trait of the target type, the matching trait of the source type and how its values translate
+        BlockTrait<?>[] sourceTraits = new BlockTrait<?>[targetTraits.length];
+        int[][] targetValueIndices = new int[targetTraits.length][];
+        for(int i = 0; i < targetTraits.length; i++) {
+            BlockTrait<?> targetTrait = targetTraits[i];
+            int sourceSlot = from.indexOfTrait(targetTrait);
+            if(sourceSlot < 0)
+                sourceSlot = from.indexOfTrait(targetTrait.getKey(), 0, targetTrait.getKey().length());
+            if(sourceSlot < 0)
+                continue;
+
+            BlockTrait<?> sourceTrait = from.traits[sourceSlot];
+            int[] valueIndices = new int[sourceTrait.getValueCount()];
+            for(int v = 0; v < valueIndices.length; v++) {
+                //values the target trait does not allow fall back to its first value
+                valueIndices[v] = Math.max(targetTrait.indexOfValue(sourceTrait.getValue(v)), 0);
+            }
+            sourceTraits[i] = sourceTrait;
+            targetValueIndices[i] = valueIndices;
+        }
+
+        int[] table = new int[from.getStateCount()];
+        for(int localID = 0; localID < table.length; localID++) {
+            BlockState source = from.getStateAt(localID);
+            int targetID = to.getFirstStateID();
+            for(int i = 0; i < targetTraits.length; i++) {
+                if(sourceTraits[i] != null)
+                    targetID += targetValueIndices[i][source.getTraitValueIndex(sourceTraits[i])] * to.strides[i];
+            }
+            table[localID] = targetID;
+        }
+        return table;
+    }
+
+    /**
+     * Builder combining several type swaps into one remap, e.g. all oak blocks to their spruce counterparts
+     */
+    public static class Builder {
+
+        private final int[] targetByStateID;
+
+        private Builder() {
+            targetByStateID = new int[BlockPalette.getStateCount()];
+            for(int i = 0; i < targetByStateID.length; i++) {
+                targetByStateID[i] = i;
+            }
+        }
+
+        /**
+         * Maps all states of one block type to the corresponding states of another, replacing previous swaps of
+         * the source type.
+         * @param from The block type to replace
+         * @param to The block type to replace it with
+         * @return This builder
+         */
+        public Builder swap(BlockType from, BlockType to) {
+            int[] table = getSwapTable(from, to);
+            System.arraycopy(table, 0, targetByStateID, from.getFirstStateID(), table.length);
+            return this;
+        }
+
+        public BlockStateRemap build() {
+            return new BlockStateRemap(targetByStateID.clone());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import java.util.BitSet;
+
+/**
+ * An immutable set of block states, stored as a bitset indexed by state ID.
+ * Testing whether a state is contained is a single bit test, which makes these sets suitable for masks
+ * and other per-block checks in tight loops.
+ */
+public final class BlockStateSet {
+
+    public static final BlockStateSet EMPTY = new BlockStateSet(new long[0]);
+
+    private final long[] words;
+
+    private BlockStateSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Checks whether the state with the given ID is contained in this set.
+     * @param stateID The state ID
+     * @return true if the state is contained in this set
+     */
+    public boolean contains(int stateID) {
+        //unsigned shift maps negative IDs past the end of the array
+        int word = stateID >>> 6;
+        return word < words.length && (words[word] & (1L << stateID)) != 0;
+    }
+
+    public boolean contains(BlockState state) {
+        return contains(state.getStateID());
+    }
+
+    /**
+     * Checks whether any state of the given block type is contained in this set.
+     * @param blockType The block type
+     * @return true if at least one state of the block type is contained in this set
+     */
+    public boolean containsAny(BlockType blockType) {
+        int from = blockType.getFirstStateID();
+        int to = from + blockType.getStateCount();
+        if(from >= to)
+            return false;
+
+        int fromWord = from >>> 6;
+        int toWord = (to - 1) >>> 6;
+        for(int i = fromWord; i <= toWord && i < words.length; i++) {
+            long word = words[i];
+            if(i == fromWord)
+                word &= -1L << from;
+            if(i == toWord)
+                word &= -1L >>> -to;
+            if(word != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of states in this set
+     */
+    public int size() {
+        int size = 0;
+        for(long word: words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for(long word: words) {
+            if(word != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return A mutable copy of the contents of this set
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns a set containing all states of this and the given set.
+     * @param other The other set
+     * @return The union of both sets
+     */
+    public BlockStateSet union(BlockStateSet other) {
+        BitSet bits = toBitSet();
+        bits.or(other.toBitSet());
+        return of(bits);
+    }
+
+    /**
+     * Returns a set containing all states that are contained in both this and the given set.
+     * @param other The other set
+     * @return The intersection of both sets
+     */
+    public BlockStateSet intersection(BlockStateSet other) {
+        BitSet bits = toBitSet();
+        bits.and(other.toBitSet());
+        return of(bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof BlockStateSet && toBitSet().equals(((BlockStateSet) o).toBitSet());
+    }
+
+    @Override
+    public int hashCode() {
+        return toBitSet().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "BlockStateSet{size=" + size() + "}";
+    }
+
+
+
+    /**
+     * Creates a set containing the states whose IDs are set in the given bitset.
+     * @param stateIDs The state IDs
+     * @return The set
+     */
+    public static BlockStateSet of(BitSet stateIDs) {
+        return stateIDs.isEmpty() ? EMPTY : new BlockStateSet(stateIDs.toLongArray());
+    }
+
+    /**
+     * Creates a set containing all states of the given block types.
+     * @param blockTypes The block types
+     * @return The set
+     */
+    public static BlockStateSet ofTypes(Iterable<BlockType> blockTypes) {
+        BitSet bits = new BitSet(BlockPalette.getStateCount());
+        for(BlockType blockType: blockTypes) {
+            bits.set(blockType.getFirstStateID(), blockType.getFirstStateID() + blockType.getStateCount());
+        }
+        return of(bits);
+    }
+}
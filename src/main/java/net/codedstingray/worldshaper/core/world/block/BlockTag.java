@@ -0,0 +1,117 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A named category of block types, like all logs or all stairs.
+ * Tags are referenced in patterns and masks by their ID prefixed with {@value #PREFIX}, e.g. {@code #leaves}.
+ * <p>
+ * When the {@link BlockPalette} is initialized, every tag is compiled into a {@link BlockStateSet} of all states of its
+ * block types, so testing a block against a tag is a single bit test.
+ */
+public class BlockTag {
+
+    public static final char PREFIX = '#';
+
+    static volatile Map<String, BlockTag> BY_ID = new HashMap<>();
+
+    private final String id;
+    private final List<BlockType> blockTypes;
+
+    /**
+     * The block types of this tag, indexed by block type ordinal; compiled by {@link #compile()}
+     */
+    private BitSet typeOrdinals = new BitSet();
+    private BlockStateSet states = BlockStateSet.EMPTY;
+
+    private BlockTag(String id, BlockType... blockTypes) {
+        this.id = id;
+        this.blockTypes = Collections.unmodifiableList(Arrays.asList(blockTypes.clone()));
+    }
+
+    /**
+     * @return The ID of this tag, without {@value #PREFIX}
+     */
+    public String getID() {
+        return id;
+    }
+
+    public List<BlockType> getBlockTypes() {
+        return blockTypes;
+    }
+
+    /**
+     * @return All states of the block types of this tag
+     */
+    public BlockStateSet getStates() {
+        return states;
+    }
+
+    public boolean contains(BlockType blockType) {
+        return typeOrdinals.get(blockType.getOrdinal());
+    }
+
+    public boolean contains(BlockState state) {
+        return states.contains(state.getStateID());
+    }
+
+    public boolean contains(int stateID) {
+        return states.contains(stateID);
+    }
+
+    @Override
+    public String toString() {
+        return PREFIX + id;
+    }
+
+    /**
+     * Compiles the block types of this tag into bitsets. Has to be called after the palette has been initialized.
+     */
+    void compile() {
+        BitSet typeOrdinals = new BitSet(BlockType.getTypeCount());
+        for(BlockType blockType: blockTypes) {
+            typeOrdinals.set(blockType.getOrdinal());
+        }
+        this.typeOrdinals = typeOrdinals;
+        this.states = BlockStateSet.ofTypes(blockTypes);
+    }
+
+
+
+    /**
+     * Looks up a tag by its ID.
+     * @param id The ID of the tag, with or without {@value #PREFIX}
+     * @return The tag, or null if no tag with the given ID is registered
+     */
+    public static BlockTag getByID(String id) {
+        if(!id.isEmpty() && id.charAt(0) == PREFIX)
+            id = id.substring(1);
+        return BY_ID.get(id);
+    }
+
+    /**
+     * Registers a block tag.
+     * @param id The ID of the tag, without {@value #PREFIX}
+     * @param blockTypes The block types of the tag
+     * @return The tag
+     * @throws IllegalStateException If the block registries have been sealed
+     */
+    public static BlockTag register(String id, BlockType... blockTypes) {
+        BlockRegistry.checkNotSealed("block tag \"" + PREFIX + id + "\"");
+        BlockTag tag = new BlockTag(id, blockTypes);
+        BY_ID.putIfAbsent(id, tag);
+        return tag;
+    }
+
+    /**
+     * Replaces the registry with an immutable copy, see {@link BlockRegistry#seal()}
+     */
+    static void seal() {
+        BY_ID = Collections.unmodifiableMap(new HashMap<>(BY_ID));
+    }
+}
@@ -0,0 +1,51 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+import static net.codedstingray.worldshaper.core.world.block.BlockTypes.*;
+
+/**
+ * Block categories usable in patterns and masks, e.g. {@code #logs}
+ */
+public class BlockTags {
+    public static final BlockTag LOGS = BlockTag.register("logs",
+            ACACIA_LOG, BIRCH_LOG, DARK_OAK_LOG, JUNGLE_LOG, OAK_LOG, SPRUCE_LOG,
+            STRIPPED_ACACIA_LOG, STRIPPED_BIRCH_LOG, STRIPPED_DARK_OAK_LOG, STRIPPED_JUNGLE_LOG, STRIPPED_OAK_LOG, STRIPPED_SPRUCE_LOG,
+            ACACIA_WOOD, BIRCH_WOOD, DARK_OAK_WOOD, JUNGLE_WOOD, OAK_WOOD, SPRUCE_WOOD,
+            STRIPPED_ACACIA_WOOD, STRIPPED_BIRCH_WOOD, STRIPPED_DARK_OAK_WOOD, STRIPPED_JUNGLE_WOOD, STRIPPED_OAK_WOOD, STRIPPED_SPRUCE_WOOD
+    );
+    public static final BlockTag LEAVES = BlockTag.register("leaves",
+            ACACIA_LEAVES, BIRCH_LEAVES, DARK_OAK_LEAVES, JUNGLE_LEAVES, OAK_LEAVES, SPRUCE_LEAVES
+    );
+    public static final BlockTag STAIRS = BlockTag.register("stairs",
+            ACACIA_STAIRS, ANDESITE_STAIRS, BIRCH_STAIRS, BRICK_STAIRS, COBBLESTONE_STAIRS, DARK_OAK_STAIRS,
+            DARK_PRISMARINE_STAIRS, DIORITE_STAIRS, END_STONE_BRICK_STAIRS, GRANITE_STAIRS, JUNGLE_STAIRS,
+            MOSSY_COBBLESTONE_STAIRS, MOSSY_STONE_BRICK_STAIRS, NETHER_BRICK_STAIRS, OAK_STAIRS, POLISHED_ANDESITE_STAIRS,
+            POLISHED_DIORITE_STAIRS, POLISHED_GRANITE_STAIRS, PRISMARINE_BRICK_STAIRS, PRISMARINE_STAIRS, PURPUR_STAIRS,
+            QUARTZ_STAIRS, RED_NETHER_BRICK_STAIRS, RED_SANDSTONE_STAIRS, SANDSTONE_STAIRS, SMOOTH_QUARTZ_STAIRS,
+            SMOOTH_RED_SANDSTONE_STAIRS, SMOOTH_SANDSTONE_STAIRS, SPRUCE_STAIRS, STONE_BRICK_STAIRS, STONE_STAIRS
+    );
+    public static final BlockTag SLABS = BlockTag.register("slabs",
+            ACACIA_SLAB, ANDESITE_SLAB, BIRCH_SLAB, BRICK_SLAB, COBBLESTONE_SLAB, CUT_RED_SANDSTONE_SLAB, CUT_SANDSTONE_SLAB,
+            DARK_OAK_SLAB, DARK_PRISMARINE_SLAB, DIORITE_SLAB, END_STONE_BRICK_SLAB, GRANITE_SLAB, JUNGLE_SLAB,
+            MOSSY_COBBLESTONE_SLAB, MOSSY_STONE_BRICK_SLAB, NETHER_BRICK_SLAB, OAK_SLAB, PETRIFIED_OAK_SLAB,
+            POLISHED_ANDESITE_SLAB, POLISHED_DIORITE_SLAB, POLISHED_GRANITE_SLAB, PRISMARINE_BRICK_SLAB, PRISMARINE_SLAB,
+            PURPUR_SLAB, QUARTZ_SLAB, RED_NETHER_BRICK_SLAB, RED_SANDSTONE_SLAB, SANDSTONE_SLAB, SMOOTH_QUARTZ_SLAB,
+            SMOOTH_RED_SANDSTONE_SLAB, SMOOTH_SANDSTONE_SLAB, SMOOTH_STONE_SLAB, SPRUCE_SLAB, STONE_BRICK_SLAB, STONE_SLAB
+    );
+    public static final BlockTag ORES = BlockTag.register("ores",
+            COAL_ORE, DIAMOND_ORE, EMERALD_ORE, GOLD_ORE, IRON_ORE, LAPIS_ORE, NETHER_QUARTZ_ORE, REDSTONE_ORE
+    );
+    public static final BlockTag FLUIDS = BlockTag.register("fluids",
+            WATER, LAVA, BUBBLE_COLUMN
+    );
+
+    /**
+     * Compiles all tags into bitsets. Has to be called after the {@link BlockPalette} has been initialized.
+     */
+    public static void init() {
+        for(BlockTag tag: BlockTag.BY_ID.values()) {
+            tag.compile();
+        }
+        WorldShaper.getInstance().getLogger().info(BlockTag.BY_ID.size() + " block tags have been registered");
+    }
+}
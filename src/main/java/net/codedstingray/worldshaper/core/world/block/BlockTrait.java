@@ -1,10 +1,17 @@
 package net.codedstingray.worldshaper.core.world.block;
 
+import net.codedstingray.worldshaper.core.util.text.CharSequenceUtil;
+
 import java.util.*;
 
 public class BlockTrait<T> {
 
-    static Map<String, BlockTrait> BY_ID = new HashMap<>();
+    static volatile Map<String, BlockTrait> BY_ID = new HashMap<>();
+
+    /**
+     * All registered block traits, indexed by their ordinal
+     */
+    static volatile List<BlockTrait<?>> BY_ORDINAL = new ArrayList<>();
 
     private final String id;
     private final String key;
@@ -12,11 +19,45 @@ public class BlockTrait<T> {
 
     private final Collection<T> possibleValues;
 
-    private BlockTrait(String id, String key, Class<T> type, Collection<T> possibleValues) {
+    /**
+     * The registration index of this trait
+     */
+    private final int ordinal;
+
+    /**
+     * All values this trait can take, in palette order; a value's position in this array is its value index
+     */
+    private final Object[] values;
+
+    /**
+     * Maps values to their value index
+     */
+    private final Map<Object, Integer> indexByValue = new HashMap<>();
+
+    /**
+     * If the values are consecutive ascending integers, the first value; otherwise null.
+     * Allows resolving integer values to their index by subtraction.
+     */
+    private final Integer firstConsecutiveValue;
+
+    /**
+     * Number of bits needed to store a value index
+     */
+    private final int bitsPerValue;
+
+    private BlockTrait(String id, String key, Class<T> type, Collection<T> possibleValues, int ordinal) {
         this.id = id;
         this.key = key;
         this.type = type;
         this.possibleValues = Collections.unmodifiableCollection(possibleValues);
+        this.ordinal = ordinal;
+        this.values = enumerateValues(type, possibleValues);
+
+        for(int i = 0; i < values.length; i++) {
+            indexByValue.putIfAbsent(values[i], i);
+        }
+        firstConsecutiveValue = findFirstConsecutiveValue(values);
+        bitsPerValue = values.length <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(values.length - 1);
     }
 
     public String getID() {
@@ -35,14 +76,83 @@ public class BlockTrait<T> {
         return possibleValues;
     }
 
-    @SuppressWarnings("all")
+    /**
+     * @return The registration index of this trait
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return The number of bits needed to store the index of any of this trait's values
+     */
+    public int getBitsPerValue() {
+        return bitsPerValue;
+    }
+
+    /**
+     * Returns the number of values this trait can take. Boolean traits always have 2 values.
+     * @return The number of values, or 0 if this trait accepts arbitrary values
+     */
+    public int getValueCount() {
+        return values.length;
+    }
+
+    /**
+     * Returns the value at the given index in this trait's value list.
+     * @param index The value index
+     * @return The value at the given index
+     * @throws IndexOutOfBoundsException If the index is not in the range [0, {@link #getValueCount()})
+     */
+    @SuppressWarnings("unchecked")
+    public T getValue(int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * Checks whether the given value index denotes a value of this trait.
+     * @param index The value index
+     * @return true if the index is in the range [0, {@link #getValueCount()})
+     */
+    public boolean isValidValueIndex(int index) {
+        return index >= 0 && index < values.length;
+    }
+
+    /**
+     * Returns the index of the given value in this trait's value list.
+     * @param value The value
+     * @return The index of the value, or -1 if this trait cannot take the given value
+     */
+    public int indexOfValue(Object value) {
+        if(firstConsecutiveValue != null)
+            return value instanceof Integer ? indexOfIntValue((Integer) value) : -1;
+
+        Integer index = indexByValue.get(value);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the index of the given integer value in this trait's value list, without boxing it
+     * if the trait's values are consecutive.
+     * @param value The value
+     * @return The index of the value, or -1 if this trait cannot take the given value
+     */
+    public int indexOfIntValue(int value) {
+        if(firstConsecutiveValue != null) {
+            int index = value - firstConsecutiveValue;
+            return isValidValueIndex(index) ? index : -1;
+        }
+
+        Integer index = indexByValue.get(value);
+        return index == null ? -1 : index;
+    }
+
     public boolean allowsValue(Object value) {
-        return value != null && (possibleValues.contains(value) || possibleValues.isEmpty());
+        return value != null && (possibleValues.isEmpty() || indexOfValue(value) >= 0);
     }
 
-    @SuppressWarnings("all")
     public void checkValue(Object value) {
-        if(value == null || (!possibleValues.isEmpty() && !possibleValues.contains(value))) {
+        if(!allowsValue(value)) {
             throw new IllegalArgumentException("\"" + value + "\" is not a possible value for trait[key=" + key + ",id=" + id + "]");
         }
     }
@@ -52,6 +162,25 @@ public class BlockTrait<T> {
         return key;
     }
 
+    private static Object[] enumerateValues(Class<?> type, Collection<?> possibleValues) {
+        if(possibleValues.isEmpty() && type == Boolean.class) {
+            return new Object[] {Boolean.FALSE, Boolean.TRUE};
+        }
+        return possibleValues.toArray();
+    }
+
+    private static Integer findFirstConsecutiveValue(Object[] values) {
+        if(values.length == 0 || !(values[0] instanceof Integer))
+            return null;
+
+        int first = (Integer) values[0];
+        for(int i = 1; i < values.length; i++) {
+            if(!(values[i] instanceof Integer) || (Integer) values[i] != first + i)
+                return null;
+        }
+        return first;
+    }
+
 
     @SafeVarargs
     public static<I> BlockTrait<I> register(String id, String key, Class<I> type, I... possibleValues) {
@@ -61,42 +190,70 @@ public class BlockTrait<T> {
     }
 
     public static<I> BlockTrait<I> register(String id, String key, Class<I> type, Collection<I> possibleValues) {
+        BlockRegistry.checkNotSealed("block trait \"" + id + "\"");
         if(BY_ID.get(id) != null) {
             throw new IllegalArgumentException("Unable to register the same blocktrait twice");
         }
 
-        BlockTrait<I> trait = new BlockTrait<>(id, key, type, possibleValues);
+        BlockTrait<I> trait = new BlockTrait<>(id, key, type, possibleValues, BY_ORDINAL.size());
         BY_ID.put(id, trait);
+        BY_ORDINAL.add(trait);
 
         return trait;
     }
 
-    public static Map.Entry<BlockTrait<?>, ?> parseTraitValuePair(BlockTrait<?> trait, String rawValue) {
-        Class<?> type = trait.getType();
-
-        Map.Entry<BlockTrait<?>, Object> entry = new AbstractMap.SimpleEntry<>(trait, null);
+    /**
+     * Replaces the registry with immutable copies, see {@link BlockRegistry#seal()}
+     */
+    static void seal() {
+        BY_ID = Collections.unmodifiableMap(new HashMap<>(BY_ID));
+        BY_ORDINAL = Collections.unmodifiableList(new ArrayList<>(BY_ORDINAL));
+    }
 
+    /**
+     * Parses the value in the given region of the input without creating intermediate objects.
+     * @param input The input containing the value
+     * @param start The start index of the value, inclusive
+     * @param end The end index of the value, exclusive
+     * @return The index of the parsed value in this trait's value list, or -1 if the region does not denote
+     *         a possible value of this trait
+     * @throws IllegalArgumentException If this trait's type is not one of String, Boolean and Integer
+     */
+    public int parseValueIndex(CharSequence input, int start, int end) {
         if(type == String.class) {
             //String
-            trait.checkValue(rawValue);
-            entry.setValue(rawValue);
+            for(int i = 0; i < values.length; i++) {
+                if(CharSequenceUtil.regionEquals(input, start, end, (String) values[i]))
+                    return i;
+            }
+            return -1;
         } else if(type == Integer.class) {
             //Integer
-            try {
-                int i = Integer.parseInt(rawValue);
-                trait.checkValue(i);
-                entry.setValue(i);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("\"" + rawValue + "\" cannot be parsed to Integer", e);
+            int i = start;
+            boolean negative = i < end && input.charAt(i) == '-';
+            if(negative)
+                i++;
+            //more than 9 digits cannot be a possible value and might overflow
+            if(i == end || end - i > 9)
+                return -1;
+
+            int value = 0;
+            for(; i < end; i++) {
+                char c = input.charAt(i);
+                if(c < '0' || c > '9')
+                    return -1;
+                value = value * 10 + (c - '0');
             }
+            return indexOfIntValue(negative ? -value : value);
         } else if (type == Boolean.class) {
             //Boolean
-            boolean b = Boolean.parseBoolean(rawValue);
-            entry.setValue(b);
+            if(CharSequenceUtil.regionEqualsIgnoreCase(input, start, end, "true"))
+                return indexOfValue(Boolean.TRUE);
+            if(CharSequenceUtil.regionEqualsIgnoreCase(input, start, end, "false"))
+                return indexOfValue(Boolean.FALSE);
+            return -1;
         } else {
             throw new IllegalArgumentException("Illegal argument for BlockTrait value; only allowed types are: String, Boolean, Integer");
         }
-
-        return entry;
     }
 }
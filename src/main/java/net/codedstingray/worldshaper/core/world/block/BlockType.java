@@ -1,14 +1,31 @@
 package net.codedstingray.worldshaper.core.world.block;
 
+import net.codedstingray.worldshaper.core.util.text.CharSequenceUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class BlockType {
 
     public static final String NAMESPACE_MINECRAFT = "minecraft";
 
-    static Map<String, BlockType> BY_NAMESPACED_ID = new HashMap<>();
+    static volatile Map<String, BlockType> BY_NAMESPACED_ID = new HashMap<>();
+
+    /**
+     * Compiled from {@link #BY_NAMESPACED_ID} by {@link #freeze()}; null while the registry is being modified
+     */
+    private static volatile BlockTypeTable frozenTable = null;
+
+    /**
+     * All registered block types, indexed by their ordinal
+     */
+    static volatile List<BlockType> BY_ORDINAL = new ArrayList<>();
 
     public final String namespace;
     public final String id;
@@ -17,7 +34,38 @@ public class BlockType {
     /**
      * Maps BlockTrait keys to BlockTraits
      */
-    private Map<String, BlockTrait<?>> applicableTraits = new HashMap<>();
+    private Map<String, BlockTrait<?>> applicableTraits = new LinkedHashMap<>();
+
+    /**
+     * The applicable traits in declaration order; this order defines the layout of this type's state IDs
+     */
+    final BlockTrait<?>[] traits;
+
+    /**
+     * Maps trait ordinals to the position of the trait in {@link #traits}, or -1 if the trait is not applicable
+     */
+    private final byte[] slotByTraitOrdinal;
+
+    /**
+     * Positions in {@link #traits}, sorted by trait key; the trait order of the canonical string form of states
+     */
+    final int[] canonicalTraitOrder;
+
+    //layout of the packed trait values of this type's states, see BlockState#getPackedValues()
+    final int[] shifts;
+    final long[] masks;
+
+    private int ordinal = -1;
+
+    //palette layout, see BlockPalette
+    private int firstStateID = -1;
+    private int stateCount;
+    int[] strides;
+
+    /**
+     * All states of this block type, indexed by their state ID relative to {@link #firstStateID}
+     */
+    private BlockState[] states;
 
     private  BlockType(String id, BlockTrait... applicableTraits) {
         this(NAMESPACE_MINECRAFT, id, applicableTraits);
@@ -32,6 +80,38 @@ public class BlockType {
         for(BlockTrait<?> trait: applicableTraits) {
             this.applicableTraits.put(trait.getKey(), trait);
         }
+        traits = this.applicableTraits.values().toArray(new BlockTrait<?>[0]);
+
+        int maxOrdinal = -1;
+        for(BlockTrait<?> trait: traits) {
+            maxOrdinal = Math.max(maxOrdinal, trait.getOrdinal());
+        }
+        slotByTraitOrdinal = new byte[maxOrdinal + 1];
+        Arrays.fill(slotByTraitOrdinal, (byte) -1);
+
+        shifts = new int[traits.length];
+        masks = new long[traits.length];
+        int shift = 0;
+        for(int i = 0; i < traits.length; i++) {
+            slotByTraitOrdinal[traits[i].getOrdinal()] = (byte) i;
+            shifts[i] = shift;
+            masks[i] = (1L << traits[i].getBitsPerValue()) - 1;
+            shift += traits[i].getBitsPerValue();
+        }
+        Integer[] order = new Integer[traits.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (slot1, slot2) -> traits[slot1].getKey().compareTo(traits[slot2].getKey()));
+        canonicalTraitOrder = new int[order.length];
+        for(int i = 0; i < order.length; i++) {
+            canonicalTraitOrder[i] = order[i];
+        }
+
+        if(shift > Long.SIZE) {
+            throw new IllegalArgumentException("The trait values of block type \"" + namespacedID + "\" do not fit into "
+                    + Long.SIZE + " bits");
+        }
     }
 
     @Override
@@ -47,17 +127,180 @@ public class BlockType {
         return applicableTraits.get(key);
     }
 
+    /**
+     * @return The registration index of this block type, or -1 if it has not been registered
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return The palette ID of the first state of this block type
+     */
+    public int getFirstStateID() {
+        return firstStateID;
+    }
+
+    /**
+     * @return The number of distinct states of this block type, i.e. the product of its traits' value counts
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @return The state of this block type in which every trait has its first value
+     */
+    public BlockState getDefaultState() {
+        return states[0];
+    }
+
+    /**
+     * Returns the state at the given position within this type's range of state IDs.
+     * @param localID The state ID relative to {@link #getFirstStateID()}
+     * @return The state
+     */
+    BlockState getStateAt(int localID) {
+        return states[localID];
+    }
+
+    /**
+     * Returns the position of the given trait in this type's trait list.
+     * @param trait The trait
+     * @return The index of the trait, or -1 if the trait is not applicable to this block type
+     */
+    int indexOfTrait(BlockTrait<?> trait) {
+        int ordinal = trait.getOrdinal();
+        return ordinal < slotByTraitOrdinal.length ? slotByTraitOrdinal[ordinal] : -1;
+    }
+
+    /**
+     * Returns the position of the trait whose key is the given region of the input in this type's trait list.
+     * @param input The input containing the key
+     * @param start The start index of the key, inclusive
+     * @param end The end index of the key, exclusive
+     * @return The index of the trait, or -1 if no applicable trait has the given key
+     */
+    int indexOfTrait(CharSequence input, int start, int end) {
+        for(int i = 0; i < traits.length; i++) {
+            if(CharSequenceUtil.regionEquals(input, start, end, traits[i].getKey()))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates the palette layout of this block type, starting at the given state ID, and creates all of its states.
+     * @param firstStateID The palette ID of this type's first state
+     */
+    void initPalette(int firstStateID) {
+        int[] strides = new int[traits.length];
+        int stateCount = 1;
+        for(int i = 0; i < traits.length; i++) {
+            int valueCount = traits[i].getValueCount();
+            if(valueCount == 0) {
+                throw new IllegalStateException("BlockTrait \"" + traits[i].getID() + "\" of block type \""
+                        + namespacedID + "\" has no finite set of values");
+            }
+            strides[i] = stateCount;
+            stateCount = Math.multiplyExact(stateCount, valueCount);
+        }
+
+        BlockState[] states = new BlockState[stateCount];
+        int[] valueIndices = new int[traits.length];
+        long packedValues = 0;
+        for(int i = 0; i < stateCount; i++) {
+            states[i] = new BlockState(this, firstStateID + i, packedValues);
+
+            //advance to the next state like an odometer, the first trait being the fastest changing digit
+            for(int slot = 0; slot < traits.length; slot++) {
+                if(++valueIndices[slot] < traits[slot].getValueCount()) {
+                    packedValues += 1L << shifts[slot];
+                    break;
+                }
+                valueIndices[slot] = 0;
+                packedValues &= ~(masks[slot] << shifts[slot]);
+            }
+        }
+
+        this.firstStateID = firstStateID;
+        this.stateCount = stateCount;
+        this.strides = strides;
+        this.states = states;
+    }
+
+
 
+    /**
+     * @return The number of registered block types
+     */
+    public static int getTypeCount() {
+        return BY_ORDINAL.size();
+    }
+
+    /**
+     * Returns the block type with the given ordinal.
+     * @param ordinal The ordinal
+     * @return The block type
+     * @throws IndexOutOfBoundsException If no block type with the given ordinal is registered
+     */
+    public static BlockType getByOrdinal(int ordinal) {
+        return BY_ORDINAL.get(ordinal);
+    }
 
     public static BlockType getByID(String namespacedID) {
+        return getByID(namespacedID, 0, namespacedID.length());
+    }
+
+    /**
+     * Looks up the block type whose ID is the given region of the input, e.g. a slice of a command argument.
+     * IDs without namespace are resolved in the {@value #NAMESPACE_MINECRAFT} namespace.
+     * @param input The input containing the ID
+     * @param start The start index of the ID, inclusive
+     * @param end The end index of the ID, exclusive
+     * @return The block type, or null if no block type with the given ID is registered
+     */
+    public static BlockType getByID(CharSequence input, int start, int end) {
+        BlockTypeTable table = frozenTable;
+        if(table != null)
+            return table.get(input, start, end);
+
+        String namespacedID = input.subSequence(start, end).toString();
         if(!namespacedID.contains(":"))
             namespacedID = NAMESPACE_MINECRAFT + ":" + namespacedID;
 
         return BY_NAMESPACED_ID.get(namespacedID);
     }
 
+    /**
+     * Compiles the registered block types into an immutable perfect-hash table, making lookups by ID allocation-free.
+     */
+    static void freeze() {
+        frozenTable = BlockTypeTable.build(BY_NAMESPACED_ID.values());
+    }
+
+    /**
+     * Replaces the registry with immutable copies, see {@link BlockRegistry#seal()}
+     */
+    static void seal() {
+        BY_NAMESPACED_ID = Collections.unmodifiableMap(new HashMap<>(BY_NAMESPACED_ID));
+        BY_ORDINAL = Collections.unmodifiableList(new ArrayList<>(BY_ORDINAL));
+        if(frozenTable == null)
+            freeze();
+    }
+
+    /**
+     * Registers a block type.
+     * @param blockType The block type
+     * @throws IllegalStateException If the block registries have been sealed
+     */
     public static void register(BlockType blockType) {
-        BY_NAMESPACED_ID.putIfAbsent(blockType.namespacedID, blockType);
+        BlockRegistry.checkNotSealed("block type \"" + blockType.namespacedID + "\"");
+        if(BY_NAMESPACED_ID.putIfAbsent(blockType.namespacedID, blockType) == null) {
+            blockType.ordinal = BY_ORDINAL.size();
+            BY_ORDINAL.add(blockType);
+            frozenTable = null;
+        }
     }
 
     public static BlockType register(String id, BlockTrait<?>... applicableTraits) {
@@ -71,7 +314,7 @@ public class BlockType {
 
     public static BlockType register(String namespace, String id, BlockTrait<?>... applicableTraits) {
         BlockType blockType = new BlockType(namespace, id, applicableTraits);
-        BY_NAMESPACED_ID.putIfAbsent(blockType.namespacedID, blockType);
+        register(blockType);
         return blockType;
     }
 }
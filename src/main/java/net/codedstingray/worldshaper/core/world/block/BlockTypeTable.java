@@ -0,0 +1,261 @@
+package net.codedstingray.worldshaper.core.world.block;
+
+import net.codedstingray.worldshaper.core.util.text.CharSequenceUtil;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable perfect-hash table mapping namespaced IDs to block types.
+ * <p>
+ * Keys are hashed into buckets of a few keys each. Every bucket stores a seed that was chosen when the table was built
+ * so that all keys of all buckets land in distinct slots ("hash and displace"). A lookup therefore hashes the input once
+ * and compares against at most one candidate.
+ * <p>
+ * IDs without namespace are resolved in the {@value BlockType#NAMESPACE_MINECRAFT} namespace by continuing the hash
+ * from the precomputed hash of the namespace prefix, so the namespaced ID never has to be concatenated.
+ * <p>
+ * Searching the seeds is the expensive part of building the table, so the seeds for the vanilla registry are
+ * computed at build time (see {@link BlockRegistryGenerator}) and bundled as a resource.
+ */
+final class BlockTypeTable {
+
+    private static final long MINECRAFT_PREFIX_HASH = CharSequenceUtil.hash(CharSequenceUtil.HASH_OFFSET_BASIS,
+            BlockType.NAMESPACE_MINECRAFT + ":");
+
+    static final String RESOURCE_PATH = "/registry/block_types.dat";
+    private static final int RESOURCE_MAGIC = 0x57534254; //"WSBT"
+    private static final int RESOURCE_VERSION = 1;
+
+    private static final int MAX_SEED_ATTEMPTS = 1 << 16;
+    private static final int MAX_SLOT_COUNT = 1 << 24;
+
+    private final int[] seeds;
+    private final BlockType[] slots;
+
+    private BlockTypeTable(int[] seeds, BlockType[] slots) {
+        this.seeds = seeds;
+        this.slots = slots;
+    }
+
+    /**
+     * Looks up the block type whose ID is the given region of the input.
+     * @param input The input containing the ID
+     * @param start The start index of the ID, inclusive
+     * @param end The end index of the ID, exclusive
+     * @return The block type, or null if no block type with the given ID is contained in this table
+     */
+    BlockType get(CharSequence input, int start, int end) {
+        boolean namespaced = false;
+        for(int i = start; i < end; i++) {
+            if(input.charAt(i) == ':') {
+                namespaced = true;
+                break;
+            }
+        }
+
+        long hash = namespaced
+                ? CharSequenceUtil.hash(CharSequenceUtil.HASH_OFFSET_BASIS, input, start, end)
+                : CharSequenceUtil.hash(MINECRAFT_PREFIX_HASH, input, start, end);
+        BlockType candidate = slots[slot(hash, seeds[bucket(hash, seeds.length)], slots.length)];
+        if(candidate == null)
+            return null;
+
+        if(namespaced)
+            return CharSequenceUtil.regionEquals(input, start, end, candidate.namespacedID) ? candidate : null;
+        return BlockType.NAMESPACE_MINECRAFT.equals(candidate.namespace)
+                && CharSequenceUtil.regionEquals(input, start, end, candidate.id) ? candidate : null;
+    }
+
+    /**
+     * Writes the seeds of this table in the format read by {@link #build(Collection)}.
+     * @param out The output to write to
+     * @throws IOException If writing fails
+     */
+    void write(DataOutput out) throws IOException {
+        int size = 0;
+        for(BlockType slot: slots) {
+            if(slot != null)
+                size++;
+        }
+
+        out.writeInt(RESOURCE_MAGIC);
+        out.writeInt(RESOURCE_VERSION);
+        out.writeInt(size);
+        out.writeInt(slots.length);
+        out.writeInt(seeds.length);
+        for(int seed: seeds) {
+            out.writeInt(seed);
+        }
+    }
+
+    /**
+     * Builds a table containing the given block types, using the bundled precomputed seeds if they fit the given
+     * block types and searching new seeds otherwise.
+     * @param blockTypes The block types, which must have distinct namespaced IDs
+     * @return The table
+     */
+    static BlockTypeTable build(Collection<BlockType> blockTypes) {
+        BlockTypeTable table = loadPrecomputed(blockTypes);
+        return table != null ? table : search(blockTypes);
+    }
+
+    /**
+     * Builds a table containing the given block types, searching new seeds.
+     * @param blockTypes The block types, which must have distinct namespaced IDs
+     * @return The table
+     */
+    static BlockTypeTable search(Collection<BlockType> blockTypes) {
+        int size = Math.max(blockTypes.size(), 1);
+        int bucketCount = tableSizeFor(Math.max(size / 4, 1));
+        int slotCount = tableSizeFor(size * 2);
+
+        //only keys with identical hashes can keep the table from being built at a moderate load factor
+        for(; slotCount <= MAX_SLOT_COUNT; slotCount <<= 1) {
+            BlockTypeTable table = tryBuild(blockTypes, bucketCount, slotCount);
+            if(table != null)
+                return table;
+        }
+        throw new IllegalStateException("Unable to build block type table; the registry contains colliding IDs");
+    }
+
+    private static BlockTypeTable loadPrecomputed(Collection<BlockType> blockTypes) {
+        InputStream resource = BlockTypeTable.class.getResourceAsStream(RESOURCE_PATH);
+        if(resource == null)
+            return null;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(resource))) {
+            if(in.readInt() != RESOURCE_MAGIC || in.readInt() != RESOURCE_VERSION || in.readInt() != blockTypes.size())
+                return null;
+
+            int slotCount = in.readInt();
+            int bucketCount = in.readInt();
+            if(Integer.bitCount(slotCount) != 1 || Integer.bitCount(bucketCount) != 1 || slotCount > MAX_SLOT_COUNT)
+                return null;
+
+            int[] seeds = new int[bucketCount];
+            for(int i = 0; i < bucketCount; i++) {
+                seeds[i] = in.readInt();
+            }
+            return fromSeeds(blockTypes, seeds, slotCount);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Places the block types with the given seeds.
+     * Any placement without collisions yields a correct table, so no further validation is needed.
+     * @return The table, or null if two block types collide
+     */
+    private static BlockTypeTable fromSeeds(Collection<BlockType> blockTypes, int[] seeds, int slotCount) {
+        BlockType[] slots = new BlockType[slotCount];
+        for(BlockType blockType: blockTypes) {
+            long hash = hash(blockType);
+            int slot = slot(hash, seeds[bucket(hash, seeds.length)], slotCount);
+            if(slots[slot] != null)
+                return null;
+            slots[slot] = blockType;
+        }
+        return new BlockTypeTable(seeds, slots);
+    }
+
+    private static BlockTypeTable tryBuild(Collection<BlockType> blockTypes, int bucketCount, int slotCount) {
+        List<List<BlockType>> buckets = new ArrayList<>(bucketCount);
+        for(int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for(BlockType blockType: blockTypes) {
+            buckets.get(bucket(hash(blockType), bucketCount)).add(blockType);
+        }
+
+        //place the largest buckets first, while most slots are still free
+        List<Integer> bucketOrder = new ArrayList<>(bucketCount);
+        for(int i = 0; i < bucketCount; i++) {
+            bucketOrder.add(i);
+        }
+        bucketOrder.sort((b1, b2) -> Integer.compare(buckets.get(b2).size(), buckets.get(b1).size()));
+
+        int[] seeds = new int[bucketCount];
+        BlockType[] slots = new BlockType[slotCount];
+        int[] bucketSlots = new int[0];
+
+        for(int bucketIndex: bucketOrder) {
+            List<BlockType> bucket = buckets.get(bucketIndex);
+            if(bucket.isEmpty())
+                continue;
+            if(bucketSlots.length < bucket.size())
+                bucketSlots = new int[bucket.size()];
+
+            boolean placed = false;
+            for(int attempt = 1; attempt <= MAX_SEED_ATTEMPTS && !placed; attempt++) {
+                int seed = attempt * 0x9E3779B9;
+                placed = trySeed(bucket, seed, slots, bucketSlots);
+                if(placed) {
+                    seeds[bucketIndex] = seed;
+                    for(int i = 0; i < bucket.size(); i++) {
+                        slots[bucketSlots[i]] = bucket.get(i);
+                    }
+                }
+            }
+
+            if(!placed)
+                return null;
+        }
+
+        return new BlockTypeTable(seeds, slots);
+    }
+
+    /**
+     * Checks whether all block types of the bucket land in distinct free slots with the given seed,
+     * storing the slots in bucketSlots
+     */
+    private static boolean trySeed(List<BlockType> bucket, int seed, BlockType[] slots, int[] bucketSlots) {
+        for(int i = 0; i < bucket.size(); i++) {
+            int slot = slot(hash(bucket.get(i)), seed, slots.length);
+            if(slots[slot] != null)
+                return false;
+            for(int j = 0; j < i; j++) {
+                if(bucketSlots[j] == slot)
+                    return false;
+            }
+            bucketSlots[i] = slot;
+        }
+        return true;
+    }
+
+    private static long hash(BlockType blockType) {
+        return CharSequenceUtil.hash(CharSequenceUtil.HASH_OFFSET_BASIS, blockType.namespacedID);
+    }
+
+    private static int bucket(long hash, int bucketCount) {
+        return (int) (mix(hash) & (bucketCount - 1));
+    }
+
+    private static int slot(long hash, int seed, int slotCount) {
+        return (int) (mix(hash ^ seed) & (slotCount - 1));
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading all bits of the input over the output
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(n);
+        return size == n ? size : size << 1;
+    }
+}
@@ -733,6 +733,7 @@ public class BlockTypes {
     //</editor-fold>
 
     public static void init() {
+        BlockType.freeze();
         WorldShaper.getInstance().getLogger().info(BlockType.BY_NAMESPACED_ID.size() + " vanilla block types have been registered");
     }
 }
@@ -1,19 +1,41 @@
 package net.codedstingray.worldshaper.core.world.block.exception;
 
 public class BlockStateParseException extends IllegalArgumentException {
+
+    /**
+     * The index in the parsed input at which the error was detected, or -1 if unknown
+     */
+    private final int errorIndex;
+
     public BlockStateParseException() {
         super();
+        errorIndex = -1;
     }
 
     public BlockStateParseException(String message) {
         super(message);
+        errorIndex = -1;
+    }
+
+    public BlockStateParseException(String message, int errorIndex) {
+        super(message);
+        this.errorIndex = errorIndex;
     }
 
     public BlockStateParseException(Throwable cause) {
         super(cause);
+        errorIndex = -1;
     }
 
     public BlockStateParseException(String message, Throwable cause) {
         super(message, cause);
+        errorIndex = -1;
+    }
+
+    /**
+     * @return The index in the parsed input at which the error was detected, or -1 if unknown
+     */
+    public int getErrorIndex() {
+        return errorIndex;
     }
 }
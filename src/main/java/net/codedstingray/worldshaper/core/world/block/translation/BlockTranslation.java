@@ -0,0 +1,249 @@
+package net.codedstingray.worldshaper.core.world.block.translation;
+
+import net.codedstingray.worldshaper.core.world.block.BlockState;
+import net.codedstingray.worldshaper.core.world.block.BlockTrait;
+import net.codedstingray.worldshaper.core.world.block.BlockType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Translates block states of another Minecraft version into block states of the WorldShaper palette.
+ * <p>
+ * The rules of each supported version are bundled as a resource {@code /translations/<version>.txt}, one rule per line:
+ * <pre>
+ * # comment
+ * old_type -&gt; new_type                  renames a block type
+ * type_glob[key=value] -&gt; [key=value]    replaces a trait value, or a trait with another trait
+ * </pre>
+ * A type glob is a block type ID that may contain one {@code *}, e.g. {@code *_wall}.
+ * Trait rules are matched against the foreign type before it is renamed; the first matching rule of a trait wins.
+ * Traits that do not exist in the palette are dropped and traits that are not given keep their first value.
+ * <p>
+ * Translating a state involves string work, so it should only be done once per entry of a foreign palette;
+ * see {@link #compile(String[], BlockState)}.
+ */
+public final class BlockTranslation {
+
+    private static final String RESOURCE_DIRECTORY = "/translations/";
+    private static final String RULE_SEPARATOR = "->";
+
+    private static final Map<String, BlockTranslation> BY_VERSION = new ConcurrentHashMap<>();
+
+    private final String version;
+
+    /**
+     * Maps foreign namespaced type IDs to palette type IDs
+     */
+    private final Map<String, String> typeRenames = new HashMap<>();
+
+    private final List<TraitRule> traitRules = new ArrayList<>();
+
+    private BlockTranslation(String version) {
+        this.version = version;
+    }
+
+    /**
+     * @return The Minecraft version this translation translates from
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Translates a foreign block state of the format {@code namespace:type[trait=value,trait=value]}.
+     * @param foreignState The foreign block state
+     * @return The translated block state, or null if the block type has no equivalent in the palette
+     */
+    public BlockState translate(String foreignState) {
+        int bracket = foreignState.indexOf('[');
+        String foreignType = namespaced(bracket < 0 ? foreignState.trim() : foreignState.substring(0, bracket).trim());
+
+        BlockType blockType = BlockType.getByID(typeRenames.getOrDefault(foreignType, foreignType));
+        if(blockType == null)
+            return null;
+
+        BlockState state = blockType.getDefaultState();
+        if(bracket < 0)
+            return state;
+
+        int end = foreignState.lastIndexOf(']');
+        for(String pair: foreignState.substring(bracket + 1, end > bracket ? end : foreignState.length()).split(",")) {
+            int separator = pair.indexOf('=');
+            if(separator < 0)
+                continue;
+
+            String key = pair.substring(0, separator).trim();
+            String value = pair.substring(separator + 1).trim();
+            TraitRule rule = findRule(foreignType, key, value);
+            if(rule != null) {
+                key = rule.toKey;
+                value = rule.toValue;
+            }
+
+            BlockTrait<?> trait = blockType.getTrait(key);
+            if(trait == null)
+                continue;
+            int valueIndex = trait.parseValueIndex(value, 0, value.length());
+            if(valueIndex >= 0)
+                state = state.withTrait(trait, trait.getValue(valueIndex));
+        }
+        return state;
+    }
+
+    /**
+     * Compiles a foreign palette, e.g. the palette of a schematic, into a flat translation table.
+     * @param foreignPalette The foreign block states, indexed by their foreign ID
+     * @param fallback The state that foreign states without equivalent are translated to
+     * @return The translation table
+     */
+    public PaletteTranslation compile(String[] foreignPalette, BlockState fallback) {
+        int[] stateIDByForeignID = new int[foreignPalette.length];
+        int unmapped = 0;
+        for(int i = 0; i < foreignPalette.length; i++) {
+            BlockState state = foreignPalette[i] == null ? null : translate(foreignPalette[i]);
+            if(state == null) {
+                state = fallback;
+                unmapped++;
+            }
+            stateIDByForeignID[i] = state.getStateID();
+        }
+        return new PaletteTranslation(stateIDByForeignID, unmapped);
+    }
+
+    private TraitRule findRule(String foreignType, String key, String value) {
+        for(TraitRule rule: traitRules) {
+            if(rule.matches(foreignType, key, value))
+                return rule;
+        }
+        return null;
+    }
+
+
+
+    /**
+     * Returns the translation from the given Minecraft version, loading its rules on first use.
+     * @param version The Minecraft version, e.g. {@code 1.13}
+     * @return The translation
+     * @throws IllegalArgumentException If no translation for the given version is bundled
+     */
+    public static BlockTranslation forVersion(String version) {
+        if(!version.matches("[0-9]+(\\.[0-9]+)*"))
+            throw new IllegalArgumentException("Invalid Minecraft version \"" + version + "\"");
+
+        BlockTranslation translation = BY_VERSION.get(version);
+        if(translation == null) {
+            translation = load(version);
+            BlockTranslation previous = BY_VERSION.putIfAbsent(version, translation);
+            if(previous != null)
+                translation = previous;
+        }
+        return translation;
+    }
+
+    private static BlockTranslation load(String version) {
+        String path = RESOURCE_DIRECTORY + version + ".txt";
+        InputStream resource = BlockTranslation.class.getResourceAsStream(path);
+        if(resource == null)
+            throw new IllegalArgumentException("No block translation available for Minecraft version " + version);
+
+        BlockTranslation translation = new BlockTranslation(version);
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                if(!translation.parseRule(line))
+                    throw new IllegalStateException("Invalid translation rule at " + path + ":" + lineNumber + ": " + line);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + path, e);
+        }
+        return translation;
+    }
+
+    /**
+     * Parses a rule and adds it to this translation.
+     * @return false if the rule is malformed
+     */
+    private boolean parseRule(String line) {
+        int separator = line.indexOf(RULE_SEPARATOR);
+        if(separator < 0)
+            return false;
+        String from = line.substring(0, separator).trim();
+        String to = line.substring(separator + RULE_SEPARATOR.length()).trim();
+
+        int fromBracket = from.indexOf('[');
+        if(fromBracket < 0) {
+            if(from.isEmpty() || to.isEmpty() || from.contains("*") || to.contains("["))
+                return false;
+            typeRenames.put(namespaced(from), namespaced(to));
+            return true;
+        }
+
+        String[] fromPair = parsePair(from, fromBracket);
+        String[] toPair = to.startsWith("[") ? parsePair(to, 0) : null;
+        String typeGlob = from.substring(0, fromBracket).trim();
+        if(fromPair == null || toPair == null || typeGlob.isEmpty() || typeGlob.indexOf('*') != typeGlob.lastIndexOf('*'))
+            return false;
+
+        traitRules.add(new TraitRule(namespaced(typeGlob), fromPair[0], fromPair[1], toPair[0], toPair[1]));
+        return true;
+    }
+
+    /**
+     * Parses a single {@code [key=value]} pair starting at the given bracket
+     */
+    private static String[] parsePair(String input, int bracket) {
+        int equals = input.indexOf('=', bracket);
+        if(equals < 0 || !input.endsWith("]"))
+            return null;
+        String key = input.substring(bracket + 1, equals).trim();
+        String value = input.substring(equals + 1, input.length() - 1).trim();
+        return key.isEmpty() || value.isEmpty() ? null : new String[] {key, value};
+    }
+
+    private static String namespaced(String id) {
+        return id.contains(":") ? id : BlockType.NAMESPACE_MINECRAFT + ":" + id;
+    }
+
+    private static class TraitRule {
+        private final String typePrefix;
+        private final String typeSuffix;
+        private final String fromKey;
+        private final String fromValue;
+        private final String toKey;
+        private final String toValue;
+
+        private TraitRule(String typeGlob, String fromKey, String fromValue, String toKey, String toValue) {
+            int wildcard = typeGlob.indexOf('*');
+            this.typePrefix = wildcard < 0 ? typeGlob : typeGlob.substring(0, wildcard);
+            this.typeSuffix = wildcard < 0 ? null : typeGlob.substring(wildcard + 1);
+            this.fromKey = fromKey;
+            this.fromValue = fromValue;
+            this.toKey = toKey;
+            this.toValue = toValue;
+        }
+
+        private boolean matches(String type, String key, String value) {
+            if(!fromKey.equals(key) || !fromValue.equals(value))
+                return false;
+            if(typeSuffix == null)
+                return type.equals(typePrefix);
+            return type.length() >= typePrefix.length() + typeSuffix.length()
+                    && type.startsWith(typePrefix) && type.endsWith(typeSuffix);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package net.codedstingray.worldshaper.core.world.block.translation;
+
+/**
+ * A foreign palette compiled into a flat table mapping foreign state IDs to palette state IDs.
+ * Translating a block is a single array load, so block data can be translated in one pass while it is being imported.
+ * @see BlockTranslation#compile(String[], net.codedstingray.worldshaper.core.world.block.BlockState)
+ */
+public final class PaletteTranslation {
+
+    private final int[] stateIDByForeignID;
+    private final int unmappedCount;
+
+    PaletteTranslation(int[] stateIDByForeignID, int unmappedCount) {
+        this.stateIDByForeignID = stateIDByForeignID;
+        this.unmappedCount = unmappedCount;
+    }
+
+    /**
+     * @return The number of foreign states in the table
+     */
+    public int size() {
+        return stateIDByForeignID.length;
+    }
+
+    /**
+     * @return The number of foreign states that have no equivalent in the palette and are translated to the fallback
+     */
+    public int getUnmappedCount() {
+        return unmappedCount;
+    }
+
+    /**
+     * @param foreignID The foreign state ID
+     * @return The palette state ID
+     * @throws ArrayIndexOutOfBoundsException If the foreign ID is not part of the foreign palette
+     */
+    public int translate(int foreignID) {
+        return stateIDByForeignID[foreignID];
+    }
+
+    /**
+     * Translates a block of foreign state IDs, e.g. one chunk section of a schematic that is being read.
+     * Source and destination may be the same array.
+     * @param foreignIDs The foreign state IDs
+     * @param foreignOffset The index of the first foreign state ID to translate
+     * @param stateIDs The array to store the palette state IDs in
+     * @param offset The index to store the first palette state ID at
+     * @param length The number of state IDs to translate
+     * @throws ArrayIndexOutOfBoundsException If a foreign ID is not part of the foreign palette
+     */
+    public void translate(int[] foreignIDs, int foreignOffset, int[] stateIDs, int offset, int length) {
+        int[] table = stateIDByForeignID;
+        for(int i = 0; i < length; i++) {
+            stateIDs[offset + i] = table[foreignIDs[foreignOffset + i]];
+        }
+    }
+}
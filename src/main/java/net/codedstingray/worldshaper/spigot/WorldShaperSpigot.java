@@ -2,11 +2,16 @@ package net.codedstingray.worldshaper.spigot;
 
 import net.codedstingray.worldshaper.core.WorldShaper;
 import net.codedstingray.worldshaper.spigot.event.listeners.AreaWandListener;
+import net.codedstingray.worldshaper.spigot.util.SpigotConverter;
 import net.codedstingray.worldshaper.spigot.util.logging.SpigotLogger;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+
 public final class WorldShaperSpigot extends JavaPlugin {
 
+    private static final String REGISTRY_SNAPSHOT_FILE = "registry.snapshot";
+
     @Override
     public void onEnable() {
         getLogger().info("WorldShaper started");
@@ -17,6 +22,7 @@ public final class WorldShaperSpigot extends JavaPlugin {
         SpigotIntegration integration = new SpigotIntegration(this);
         WorldShaper.getInstance().setPluginIntegration(integration);
         WorldShaper.getInstance().init();
+        SpigotConverter.init(new File(getDataFolder(), REGISTRY_SNAPSHOT_FILE));
 
         getServer().getPluginManager().registerEvents(new AreaWandListener(), this);
     }
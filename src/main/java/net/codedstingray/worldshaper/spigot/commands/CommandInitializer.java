@@ -1,8 +1,13 @@
 package net.codedstingray.worldshaper.spigot.commands;
 
+import net.codedstingray.worldshaper.core.world.block.BlockCompletions;
 import net.codedstingray.worldshaper.spigot.WorldShaperSpigot;
+import net.codedstingray.worldshaper.spigot.commands.area.CmdAreaType;
+import net.codedstingray.worldshaper.spigot.commands.area.CmdClearPos;
 import net.codedstingray.worldshaper.spigot.commands.area.CmdPos;
 import net.codedstingray.worldshaper.spigot.commands.area.operations.CmdSet;
+import net.codedstingray.worldshaper.spigot.commands.area.operations.CmdSwapType;
+import net.codedstingray.worldshaper.spigot.commands.completion.BlockTabCompleter;
 import net.codedstingray.worldshaper.spigot.commands.utility.CmdWand;
 
 public class CommandInitializer {
@@ -15,7 +20,18 @@ public class CommandInitializer {
         CmdPos cmdPos = new CmdPos();
         plugin.getCommand("pos").setExecutor(cmdPos);
 
+        CmdClearPos cmdClearPos = new CmdClearPos();
+        plugin.getCommand("clearpos").setExecutor(cmdClearPos);
+
+        CmdAreaType cmdAreaType = new CmdAreaType();
+        plugin.getCommand("areatype").setExecutor(cmdAreaType);
+
         CmdSet cmdSet = new CmdSet();
         plugin.getCommand("set").setExecutor(cmdSet);
+        plugin.getCommand("set").setTabCompleter(new BlockTabCompleter(BlockCompletions::completePattern, 1));
+
+        CmdSwapType cmdSwapType = new CmdSwapType();
+        plugin.getCommand("swaptype").setExecutor(cmdSwapType);
+        plugin.getCommand("swaptype").setTabCompleter(new BlockTabCompleter(BlockCompletions::completeBlockType, 2));
     }
 }
@@ -0,0 +1,52 @@
+package net.codedstingray.worldshaper.spigot.commands.area;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+import net.codedstingray.worldshaper.core.area.AreaType;
+import net.codedstingray.worldshaper.core.util.chat.TextColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Changes the shape of the player's area, keeping the positions set so far
+ */
+public class CmdAreaType implements CommandExecutor {
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if(!(sender instanceof Player)) {
+            sender.sendMessage(TextColor.RED + "This command can only be used by players");
+            return true;
+        }
+
+        Player player = (Player) sender;
+        WorldShaper worldShaper = WorldShaper.getInstance();
+
+        if(args.length == 0) {
+            player.sendMessage(TextColor.WHITE + "Your area type is " + TextColor.AQUA
+                    + worldShaper.getAreaTypeForPlayer(player.getUniqueId()).getName());
+            return true;
+        }
+        if(args.length != 1) {
+            sender.sendMessage(TextColor.RED + "Invalid number of arguments. Command use:");
+            return false;
+        }
+
+        AreaType type = AreaType.getByName(args[0]);
+        if(type == null) {
+            StringBuilder types = new StringBuilder();
+            for(AreaType areaType: AreaType.values()) {
+                if(types.length() > 0)
+                    types.append(", ");
+                types.append(areaType.getName());
+            }
+            player.sendMessage(TextColor.RED + "Unknown area type: " + args[0] + "; available types: " + types);
+            return true;
+        }
+
+        worldShaper.setAreaTypeForPlayer(player.getUniqueId(), type);
+        player.sendMessage(TextColor.WHITE + "Area type set to " + TextColor.AQUA + type.getName());
+        return true;
+    }
+}
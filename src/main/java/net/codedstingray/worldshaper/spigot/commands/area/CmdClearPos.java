@@ -0,0 +1,32 @@
+package net.codedstingray.worldshaper.spigot.commands.area;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+import net.codedstingray.worldshaper.core.util.chat.TextColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Removes all positions of the player's area, keeping its type
+ */
+public class CmdClearPos implements CommandExecutor {
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if(!(sender instanceof Player)) {
+            sender.sendMessage(TextColor.RED + "This command can only be used by players");
+            return true;
+        }
+
+        if(args.length != 0) {
+            sender.sendMessage(TextColor.RED + "Invalid number of arguments. Command use:");
+            return false;
+        }
+
+        Player player = (Player) sender;
+        WorldShaper.getInstance().getAreaForPlayer(player.getUniqueId()).clearPositions();
+        player.sendMessage(TextColor.WHITE + "All positions of your area have been removed");
+        return true;
+    }
+}
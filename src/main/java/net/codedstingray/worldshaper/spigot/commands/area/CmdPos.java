@@ -52,7 +52,21 @@ public class CmdPos implements CommandExecutor {
 
         Area playerArea = WorldShaper.getInstance().getAreaForPlayer(player.getUniqueId());
 
-        playerArea.setPosition(index, position, world);
+        //a position in a different world starts a new selection, so it becomes the first one of such areas
+        if(playerArea.isPositionCountVariable() && index <= playerArea.getPositionCount()
+                && !world.equals(playerArea.getWorldUUID()))
+            index = 0;
+
+        try {
+            playerArea.setPosition(index, position, world);
+        } catch (IndexOutOfBoundsException e) {
+            sender.sendMessage(TextColor.RED + "Your area has no position " + (index + 1)
+                    + "; it has " + playerArea.getPositionCount() + " positions");
+            return true;
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage(TextColor.RED + e.getMessage());
+            return true;
+        }
 
         player.sendMessage(TextColor.WHITE + "Position " + TextColor.AQUA + (index + 1)
                 + TextColor.WHITE + " set to " + TextColor.AQUA + VectorUtil.vectorBlockToString(position));
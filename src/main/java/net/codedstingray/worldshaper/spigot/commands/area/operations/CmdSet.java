@@ -3,17 +3,21 @@ package net.codedstingray.worldshaper.spigot.commands.area.operations;
 import net.codedstingray.worldshaper.core.WorldShaper;
 import net.codedstingray.worldshaper.core.area.Area;
 import net.codedstingray.worldshaper.core.function.Pattern;
-import net.codedstingray.worldshaper.core.util.vector.Vector3;
+import net.codedstingray.worldshaper.core.function.PatternParseException;
+import net.codedstingray.worldshaper.core.world.block.BlockType;
 import net.codedstingray.worldshaper.spigot.util.SpigotConverter;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+
 public class CmdSet implements CommandExecutor {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
@@ -47,13 +51,38 @@ public class CmdSet implements CommandExecutor {
 
         World world = Bukkit.getWorld(area.getWorldUUID());
 
-        Pattern pattern = Pattern.parse(args[0]);
+        Pattern pattern;
+        try {
+            pattern = Pattern.parse(args[0]);
+        } catch (PatternParseException e) {
+            player.sendMessage(ChatColor.RED + e.getMessage());
+            return true;
+        }
+
+        List<BlockType> blockTypes = pattern.getBlockTypes();
+        Material[] materials = new Material[blockTypes.size()];
+        for(int i = 0; i < materials.length; i++) {
+            materials[i] = SpigotConverter.asMaterial(blockTypes.get(i));
+            if(materials[i] == null) {
+                player.sendMessage(ChatColor.RED + "Block type " + blockTypes.get(i) + " does not exist on this server");
+                return true;
+            }
+        }
 
         //TODO: outsource this
-        for(Vector3 position: area) {
-            Block block = world.getBlockAt(position.getBlockX(), position.getBlockY(), position.getBlockZ());
-            block.setType(SpigotConverter.asMaterial(pattern.getBlockType()));
+        if(pattern.getBlockState() != null) {
+            BlockData blockData;
+            try {
+                blockData = SpigotConverter.asBlockData(pattern.getBlockState());
+            } catch (IllegalArgumentException e) {
+                player.sendMessage(ChatColor.RED + e.getMessage());
+                return true;
+            }
+            area.forEachBlockBySection((x, y, z) -> world.getBlockAt(x, y, z).setBlockData(blockData));
+        } else {
+            area.forEachBlockBySection((x, y, z) -> world.getBlockAt(x, y, z).setType(materials[pattern.nextIndex()]));
         }
+        player.sendMessage(ChatColor.WHITE + "Set " + ChatColor.AQUA + area.getSize() + ChatColor.WHITE + " blocks");
 
 
         /*
@@ -0,0 +1,102 @@
+package net.codedstingray.worldshaper.spigot.commands.area.operations;
+
+import net.codedstingray.worldshaper.core.WorldShaper;
+import net.codedstingray.worldshaper.core.area.Area;
+import net.codedstingray.worldshaper.core.world.block.BlockStateRemap;
+import net.codedstingray.worldshaper.core.world.block.BlockType;
+import net.codedstingray.worldshaper.spigot.util.SpigotConverter;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Replaces all blocks of one type in the current area with another type, keeping the values of shared traits,
+ * e.g. the facing and shape of stairs
+ */
+public class CmdSwapType implements CommandExecutor {
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if(!(sender instanceof Player)) {
+            sender.sendMessage(ChatColor.RED + "This command can only be used by players");
+            return false;
+        }
+
+        //arg validation
+        if(args.length != 2) {
+            sender.sendMessage(ChatColor.RED + "You need to provide the block type to replace and its replacement; Usage:");
+            return false;
+        }
+
+        Player player = (Player) sender;
+        Area area = WorldShaper.getInstance().getAreaForPlayer(player.getUniqueId());
+
+        //area validation
+        if(area == null || !area.isValid()) {
+            player.sendMessage(ChatColor.RED + "Set an area before using this command");
+            return true;
+        }
+        if(!player.getWorld().getUID().equals(area.getWorldUUID())) {
+            player.sendMessage(ChatColor.RED + "Area is in a different world. Switch to that world or create a new area in this world to use this command");
+            return true;
+        }
+
+        BlockType from = BlockType.getByID(args[0]);
+        if(from == null) {
+            player.sendMessage(ChatColor.RED + "Unknown block type: " + args[0]);
+            return true;
+        }
+        BlockType to = BlockType.getByID(args[1]);
+        if(to == null) {
+            player.sendMessage(ChatColor.RED + "Unknown block type: " + args[1]);
+            return true;
+        }
+        if(SpigotConverter.asMaterial(to) == null) {
+            player.sendMessage(ChatColor.RED + "Block type " + to + " does not exist on this server");
+            return true;
+        }
+
+        World world = Bukkit.getWorld(area.getWorldUUID());
+        BlockStateRemap remap = BlockStateRemap.swap(from, to);
+
+        //changed and skipped block count
+        long[] counts = new long[2];
+        //TODO: outsource this
+        area.forEachBlockBySection((x, y, z) -> {
+            Block block = world.getBlockAt(x, y, z);
+            int stateID = SpigotConverter.asStateID(block.getBlockData());
+            if(stateID < 0)
+                return;
+
+            int targetID = remap.remap(stateID);
+            if(targetID == stateID)
+                return;
+
+            BlockData target;
+            try {
+                target = SpigotConverter.asBlockData(targetID);
+            } catch (IllegalArgumentException e) {
+                counts[1]++;
+                return;
+            }
+            block.setBlockData(target);
+            counts[0]++;
+        });
+        long changed = counts[0];
+        long skipped = counts[1];
+
+        player.sendMessage(ChatColor.WHITE + "Replaced " + ChatColor.AQUA + changed + ChatColor.WHITE + " blocks of type "
+                + ChatColor.AQUA + from + ChatColor.WHITE + " with " + ChatColor.AQUA + to);
+        if(skipped > 0) {
+            player.sendMessage(ChatColor.RED.toString() + skipped + " blocks were skipped since their state does not exist for "
+                    + to + " on this server");
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package net.codedstingray.worldshaper.spigot.commands.completion;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Completes the arguments of a command that all take the same kind of block input, e.g. patterns or block types
+ * @see net.codedstingray.worldshaper.core.world.block.BlockCompletions
+ */
+public class BlockTabCompleter implements TabCompleter {
+
+    private final Function<String, List<String>> completer;
+    private final int argumentCount;
+
+    /**
+     * @param completer Completes a single argument
+     * @param argumentCount The number of arguments of the command; further arguments are not completed
+     */
+    public BlockTabCompleter(Function<String, List<String>> completer, int argumentCount) {
+        this.completer = completer;
+        this.argumentCount = argumentCount;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if(args.length == 0 || args.length > argumentCount)
+            return Collections.emptyList();
+
+        //the completions are shared, but Bukkit passes the returned list on to events that may modify it
+        return new ArrayList<>(completer.apply(args[args.length - 1]));
+    }
+}
@@ -31,16 +31,8 @@ public class AreaWandListener implements Listener {
         if(item == null || clickedBlock == null)
             return;
 
-        int index;
-        switch(action) {
-            case LEFT_CLICK_BLOCK:
-                index = 0;
-                break;
-            case RIGHT_CLICK_BLOCK:
-                index = 1;
-                break;
-            default: return;
-        }
+        if(action != Action.LEFT_CLICK_BLOCK && action != Action.RIGHT_CLICK_BLOCK)
+            return;
 
         if(Material.IRON_AXE.equals(item.getType())) {
             ItemMeta itemMeta = item.getItemMeta();
@@ -52,11 +44,26 @@ public class AreaWandListener implements Listener {
 
                 Area playerArea = WorldShaper.getInstance().getAreaForPlayer(player.getUniqueId());
 
-                playerArea.setPosition(index, position, world);
+                //right clicks add positions to areas taking any number of positions,
+                //left clicks and positions in a different world start a new selection for them
+                int index = action == Action.LEFT_CLICK_BLOCK ? 0 : playerArea.getNextPositionIndex();
+                if(playerArea.isPositionCountVariable() && !world.equals(playerArea.getWorldUUID()))
+                    index = 0;
+                event.setCancelled(true);
+                try {
+                    if(playerArea.isPositionCountVariable() && index == 0)
+                        playerArea.clearPositions();
+                    playerArea.setPosition(index, position, world);
+                } catch (IndexOutOfBoundsException e) {
+                    player.sendMessage(TextColor.RED + "Your area has no position " + (index + 1)
+                            + "; it has " + playerArea.getPositionCount() + " positions");
+                    return;
+                } catch (IllegalArgumentException e) {
+                    player.sendMessage(TextColor.RED + e.getMessage());
+                    return;
+                }
                 player.sendMessage(TextColor.WHITE + "Position " + TextColor.AQUA + (index + 1)
                         + TextColor.WHITE + " set to " + TextColor.AQUA + VectorUtil.vectorBlockToString(position));
-
-                event.setCancelled(true);
             }
         }
     }
@@ -0,0 +1,150 @@
+package net.codedstingray.worldshaper.spigot.util;
+
+import net.codedstingray.worldshaper.core.world.block.BlockPalette;
+import net.codedstingray.worldshaper.core.world.block.BlockType;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+/**
+ * Binary snapshot of the resolved Bukkit mappings of the block palette, stored in the plugin data folder.
+ * <p>
+ * The snapshot records the Material of every block type and which block states exist on the server.
+ * It is only valid for the palette and server version it was written for; both are stored in the header and
+ * checked when the snapshot is read, so an update of either simply causes the snapshot to be rebuilt.
+ * <p>
+ * File layout, big endian:
+ * <pre>
+ * int    magic "WSRS"
+ * int    format version
+ * long   palette fingerprint, see BlockPalette#getFingerprint()
+ * int    server version length, followed by that many chars
+ * int    Material count
+ * int    block type count
+ * int    block state count
+ * int[]  Material ordinal per block type ordinal, -1 for none
+ * long[] bitset of the state IDs that exist on the server
+ * </pre>
+ */
+final class RegistrySnapshot {
+
+    private static final int MAGIC = 0x57535253; //"WSRS"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Maps BlockType ordinals to Materials
+     */
+    final Material[] materialByTypeOrdinal;
+
+    /**
+     * The state IDs of all states that exist on the server
+     */
+    final BitSet supportedStates;
+
+    RegistrySnapshot(Material[] materialByTypeOrdinal, BitSet supportedStates) {
+        this.materialByTypeOrdinal = materialByTypeOrdinal;
+        this.supportedStates = supportedStates;
+    }
+
+    /**
+     * Reads the snapshot from the given file.
+     * The file is read into memory at once and closed before parsing, so it can be replaced right after.
+     * @param file The snapshot file
+     * @return The snapshot, or null if the file does not exist, is damaged,
+     * or was written for a different palette or server version
+     */
+    static RegistrySnapshot read(File file) {
+        if(!file.isFile())
+            return null;
+
+        try {
+            //not memory-mapped: a mapping would keep the file locked on some platforms until it is garbage collected
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+            if(buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || buffer.getLong() != BlockPalette.getFingerprint())
+                return null;
+
+            String serverVersion = Bukkit.getVersion();
+            if(buffer.getInt() != serverVersion.length())
+                return null;
+            for(int i = 0; i < serverVersion.length(); i++) {
+                if(buffer.getChar() != serverVersion.charAt(i))
+                    return null;
+            }
+
+            Material[] materials = Material.values();
+            if(buffer.getInt() != materials.length || buffer.getInt() != BlockType.getTypeCount()
+                    || buffer.getInt() != BlockPalette.getStateCount())
+                return null;
+
+            Material[] materialByTypeOrdinal = new Material[BlockType.getTypeCount()];
+            for(int i = 0; i < materialByTypeOrdinal.length; i++) {
+                int materialOrdinal = buffer.getInt();
+                if(materialOrdinal < -1 || materialOrdinal >= materials.length)
+                    return null;
+                materialByTypeOrdinal[i] = materialOrdinal < 0 ? null : materials[materialOrdinal];
+            }
+
+            long[] words = new long[wordCount(BlockPalette.getStateCount())];
+            buffer.asLongBuffer().get(words);
+
+            return new RegistrySnapshot(materialByTypeOrdinal, BitSet.valueOf(words));
+        } catch (IOException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes this snapshot to the given file, replacing any previous snapshot.
+     * The file is written under a temporary name first, so concurrent readers never see a partial snapshot.
+     * @param file The snapshot file
+     * @throws IOException If writing fails
+     */
+    void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if(!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Unable to create directory " + directory);
+
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(BlockPalette.getFingerprint());
+
+            String serverVersion = Bukkit.getVersion();
+            out.writeInt(serverVersion.length());
+            out.writeChars(serverVersion);
+
+            out.writeInt(Material.values().length);
+            out.writeInt(materialByTypeOrdinal.length);
+            out.writeInt(BlockPalette.getStateCount());
+
+            for(Material material: materialByTypeOrdinal) {
+                out.writeInt(material == null ? -1 : material.ordinal());
+            }
+
+            long[] words = supportedStates.toLongArray();
+            int wordCount = wordCount(BlockPalette.getStateCount());
+            for(int i = 0; i < wordCount; i++) {
+                out.writeLong(i < words.length ? words[i] : 0);
+            }
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int wordCount(int bitCount) {
+        return (bitCount + Long.SIZE - 1) / Long.SIZE;
+    }
+}
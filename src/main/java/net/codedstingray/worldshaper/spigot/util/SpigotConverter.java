@@ -1,27 +1,234 @@
 package net.codedstingray.worldshaper.spigot.util;
 
+import net.codedstingray.worldshaper.core.WorldShaper;
+import net.codedstingray.worldshaper.core.world.block.BlockPalette;
+import net.codedstingray.worldshaper.core.world.block.BlockProperties;
+import net.codedstingray.worldshaper.core.world.block.BlockProperty;
 import net.codedstingray.worldshaper.core.world.block.BlockState;
 import net.codedstingray.worldshaper.core.world.block.BlockType;
+import net.codedstingray.worldshaper.core.world.block.exception.BlockStateParseException;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class SpigotConverter {
 
+    /**
+     * Maps BlockType ordinals to Materials
+     */
+    private static Material[] materialByTypeOrdinal = new Material[0];
+
+    /**
+     * Maps state IDs to BlockData; null for states that do not exist on this server, or whose BlockData
+     * has not been created yet
+     */
+    private static BlockData[] blockDataByStateID = new BlockData[0];
+
+    /**
+     * The state IDs of all states that exist on this server
+     */
+    private static BitSet supportedStates = new BitSet();
+
+    /**
+     * Maps Material ordinals to BlockTypes; null for Materials without WorldShaper equivalent
+     */
+    private static BlockType[] typeByMaterialOrdinal = new BlockType[0];
+
+    /**
+     * Maps BlockData to state IDs, or to -1 for BlockData without WorldShaper equivalent.
+     * Bukkit's BlockData implementations compare by the underlying game state, so all instances
+     * describing the same state share one entry.
+     */
+    private static final Map<BlockData, Integer> stateIDByBlockData = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the conversion tables for all block types and states in the palette.
+     * Has to be called after {@link WorldShaper#init()}.
+     * <p>
+     * Which Material each block type maps to and which states exist on the server is read from the given
+     * snapshot file if it matches the palette and server version, skipping the Material matching and
+     * all BlockData lookups; the BlockData of a state is then created the first time it is requested.
+     * Otherwise it is resolved against the server and the snapshot is rewritten.
+     * @param snapshotFile The registry snapshot file
+     */
+    public static void init(File snapshotFile) {
+        BlockData[] blockDataByStateID = new BlockData[BlockPalette.getStateCount()];
+        RegistrySnapshot snapshot = RegistrySnapshot.read(snapshotFile);
+        boolean fromSnapshot = snapshot != null;
+        if(!fromSnapshot)
+            snapshot = resolve(blockDataByStateID);
+
+        Material[] materialByTypeOrdinal = snapshot.materialByTypeOrdinal;
+        int unsupported = blockDataByStateID.length - snapshot.supportedStates.cardinality();
+
+        BlockType[] typeByMaterialOrdinal = new BlockType[Material.values().length];
+        for(int i = 0; i < materialByTypeOrdinal.length; i++) {
+            if(materialByTypeOrdinal[i] != null)
+                typeByMaterialOrdinal[materialByTypeOrdinal[i].ordinal()] = BlockType.getByOrdinal(i);
+        }
+
+        //BlockData not created yet is converted and cached on first use by asStateID
+        stateIDByBlockData.clear();
+        for(int i = 0; i < blockDataByStateID.length; i++) {
+            if(blockDataByStateID[i] != null)
+                stateIDByBlockData.put(blockDataByStateID[i], i);
+        }
+
+        SpigotConverter.materialByTypeOrdinal = materialByTypeOrdinal;
+        SpigotConverter.supportedStates = snapshot.supportedStates;
+        SpigotConverter.blockDataByStateID = blockDataByStateID;
+        SpigotConverter.typeByMaterialOrdinal = typeByMaterialOrdinal;
+
+        WorldShaper.getInstance().getLogger().info("Built Bukkit conversion tables for " + blockDataByStateID.length
+                + " block states (" + unsupported + " without Bukkit equivalent)"
+                + (fromSnapshot ? " from registry snapshot" : ""));
+
+        BlockProperties.init(SpigotConverter::hasProperty);
+
+        if(!fromSnapshot) {
+            try {
+                snapshot.write(snapshotFile);
+            } catch (IOException e) {
+                WorldShaper.getInstance().getLogger().warn("Unable to write registry snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Matches all block types against the server's Materials and creates the BlockData of all states
+     * that exist on the server.
+     * @param blockDataByStateID The array to store the BlockData in
+     * @return The snapshot of the resolved mappings
+     */
+    private static RegistrySnapshot resolve(BlockData[] blockDataByStateID) {
+        Material[] materialByTypeOrdinal = new Material[BlockType.getTypeCount()];
+        for(int i = 0; i < materialByTypeOrdinal.length; i++) {
+            materialByTypeOrdinal[i] = Material.matchMaterial(BlockType.getByOrdinal(i).namespacedID);
+        }
+
+        BitSet supportedStates = new BitSet(blockDataByStateID.length);
+        for(int i = 0; i < blockDataByStateID.length; i++) {
+            BlockState state = BlockPalette.getState(i);
+            if(materialByTypeOrdinal[state.getBlockType().getOrdinal()] == null)
+                continue;
+
+            try {
+                blockDataByStateID[i] = Bukkit.createBlockData(state.toString());
+                supportedStates.set(i);
+            } catch (IllegalArgumentException e) {
+                //trait combination that is valid in the palette, but not on this server
+            }
+        }
+
+        return new RegistrySnapshot(materialByTypeOrdinal, supportedStates);
+    }
+
+    /**
+     * Derives the physical properties of a block state from its Material.
+     */
+    private static boolean hasProperty(BlockState state, BlockProperty property) {
+        Material material = asMaterial(state.getBlockType());
+        if(material == null)
+            return false;
+
+        switch (property) {
+            case SOLID:
+                return material.isSolid();
+            case LIQUID:
+                return material == Material.WATER || material == Material.LAVA || material == Material.BUBBLE_COLUMN;
+            case TRANSPARENT:
+                return !material.isOccluding();
+            case GRAVITY:
+                return material.hasGravity();
+            case AIR:
+                return material.isAir();
+            default:
+                return false;
+        }
+    }
+
     public static Material asMaterial(BlockType blockType) {
-        return Material.matchMaterial(blockType.namespacedID);
+        return materialByTypeOrdinal[blockType.getOrdinal()];
     }
 
+    /**
+     * @param mat The Material
+     * @return The BlockType of the given Material, or null if it has no WorldShaper equivalent
+     */
     public static BlockType asBlockType(Material mat) {
-        return BlockType.getByID(mat.getKey().getKey());
+        return typeByMaterialOrdinal[mat.ordinal()];
     }
 
+    /**
+     * Returns the BlockData of the given state. The returned instance is shared and must not be modified;
+     * use {@link BlockData#clone()} to obtain a modifiable copy.
+     * @param blockState The block state
+     * @return The BlockData
+     * @throws IllegalArgumentException If the block state does not exist on this server
+     */
     public static BlockData asBlockData(BlockState blockState) {
-        return Bukkit.createBlockData(blockState.toString());
+        return asBlockData(blockState.getStateID());
     }
 
+    /**
+     * Returns the BlockData of the state with the given ID. The returned instance is shared and must not be modified;
+     * use {@link BlockData#clone()} to obtain a modifiable copy.
+     * @param stateID The state ID
+     * @return The BlockData
+     * @throws IllegalArgumentException If the block state does not exist on this server
+     */
+    public static BlockData asBlockData(int stateID) {
+        BlockData[] blockDataByStateID = SpigotConverter.blockDataByStateID;
+        BlockData blockData = blockDataByStateID[stateID];
+        if(blockData == null) {
+            if(!supportedStates.get(stateID))
+                throw new IllegalArgumentException("Block state " + BlockPalette.getState(stateID) + " does not exist on this server");
+
+            //created lazily; a race only creates an equal instance twice
+            blockData = Bukkit.createBlockData(BlockPalette.getState(stateID).toString());
+            blockDataByStateID[stateID] = blockData;
+        }
+        return blockData;
+    }
+
+    /**
+     * Returns the block state of the given BlockData.
+     * Each distinct BlockData is converted only once; later conversions are a single hash lookup.
+     * @param blockData The BlockData
+     * @return The block state, or null if the BlockData has no WorldShaper equivalent
+     */
     public static BlockState asBlockState(BlockData blockData) {
-        //TODO once BlockState parsing is implemented
-        return null;
+        int stateID = asStateID(blockData);
+        return stateID < 0 ? null : BlockPalette.getState(stateID);
+    }
+
+    /**
+     * Returns the palette ID of the block state of the given BlockData.
+     * Each distinct BlockData is converted only once; later conversions are a single hash lookup.
+     * @param blockData The BlockData
+     * @return The state ID, or -1 if the BlockData has no WorldShaper equivalent
+     */
+    public static int asStateID(BlockData blockData) {
+        Integer stateID = stateIDByBlockData.get(blockData);
+        if(stateID == null) {
+            stateID = parseStateID(blockData);
+            //BlockData is mutable; the cache must not share the key with the caller
+            stateIDByBlockData.putIfAbsent(blockData.clone(), stateID);
+        }
+        return stateID;
+    }
+
+    private static int parseStateID(BlockData blockData) {
+        try {
+            return BlockState.parseBlockState(blockData.getAsString()).getStateID();
+        } catch (BlockStateParseException e) {
+            return -1;
+        }
     }
 }